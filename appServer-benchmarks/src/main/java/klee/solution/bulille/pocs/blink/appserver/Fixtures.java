@@ -0,0 +1,119 @@
+package klee.solution.bulille.pocs.blink.appserver;
+
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.Activity;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Contract;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.ContractType;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.SoldPrestation;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * In-memory data shaped like production : customers with 1 to 3 contracts of 1 to 10 sold prestations, and a
+ * catalogue of prestations. Always built from the same seed, so that runs can be compared.
+ */
+public final class Fixtures {
+
+    private static final String[] NAMES = {"Martin", "Bernard", "Thomas", "Petit", "Robert", "Richard", "Durand",
+            "Dubois", "Moreau", "Laurent", "Lefèvre", "Garcia", "Da Silva", "N'Diaye", "Müller"};
+
+    private final Random random = new Random(42);
+    private final int prestations;
+
+    public Fixtures(int prestations) {
+        this.prestations = prestations;
+    }
+
+    public String salesSystemId(int index) {
+        return "PREST-" + index;
+    }
+
+    /**
+     * @return a prestations CSV file content, header included
+     */
+    public String prestationsCsv() {
+        StringBuilder csv = new StringBuilder("salesSystemId,name,unitPrice\n");
+        for (int i = 0; i < this.prestations; i++) {
+            csv.append(this.salesSystemId(i))
+                    .append(",\"Prestation ").append(i).append(", level ").append(i % 5).append('"')
+                    .append(',').append(10 + this.random.nextInt(990)).append('.').append(this.random.nextInt(100))
+                    .append('\n');
+        }
+        return csv.toString();
+    }
+
+    public List<Customer> customers(int count) {
+        List<Customer> customers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            customers.add(this.customer());
+        }
+        return customers;
+    }
+
+    public Customer customer() {
+        Customer customer = new Customer();
+        customer.id = new ObjectId();
+        customer.firstName = NAMES[this.random.nextInt(NAMES.length)];
+        customer.givenName = NAMES[this.random.nextInt(NAMES.length)];
+        customer.dateOfBirth = LocalDate.of(1950 + this.random.nextInt(55), 1 + this.random.nextInt(12), 1 + this.random.nextInt(28));
+
+        // consecutive, non-overlapping contracts ; the last one may be open-ended
+        LocalDate start = LocalDate.of(2018, 1, 1).plusDays(this.random.nextInt(365));
+        int contracts = 1 + this.random.nextInt(3);
+        for (int i = 0; i < contracts; i++) {
+            boolean last = i == contracts - 1;
+            Contract contract = new Contract();
+            contract.type = last && this.random.nextBoolean() ? ContractType.PERMANENT : ContractType.FREE_TRIAL;
+            contract.start = start;
+            contract.end = contract.type == ContractType.PERMANENT ? null : start.plusDays(28);
+            contract.soldPrestations = this.soldPrestations(1 + this.random.nextInt(10));
+            customer.contracts.add(contract);
+            start = start.plusDays(60 + this.random.nextInt(365));
+        }
+        return customer;
+    }
+
+    private List<SoldPrestation> soldPrestations(int count) {
+        List<SoldPrestation> soldPrestations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long units = 1 + this.random.nextInt(50);
+            soldPrestations.add(new SoldPrestation(this.salesSystemId(this.random.nextInt(this.prestations)), units, units * 12.5));
+        }
+        return soldPrestations;
+    }
+
+    /**
+     * @return a billed amount for about half of the contracts of the customers, keyed by contract id
+     */
+    public Map<String, Double> billedAmounts(List<Customer> customers) {
+        Map<String, Double> billedAmounts = new HashMap<>();
+        customers.forEach(customer -> customer.contracts.forEach(contract -> {
+            if (this.random.nextBoolean()) {
+                billedAmounts.put(contract.id, this.random.nextDouble() * 1000);
+            }
+        }));
+        return billedAmounts;
+    }
+
+    public List<Activity> activities(int count) {
+        List<Activity> activities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Activity activity = new Activity();
+            activity.id = new ObjectId();
+            activity.name = "Prestation " + i;
+            activity.salesSystemId = this.salesSystemId(this.random.nextInt(this.prestations));
+            activity.doneOn = LocalDate.of(2024, 1, 1).plusDays(this.random.nextInt(365));
+            activity.contractId = "c" + this.random.nextInt(1000);
+            activity.customerId = new ObjectId();
+            activity.unitsConsumed = 1 + this.random.nextInt(5);
+            activities.add(activity);
+        }
+        return activities;
+    }
+}
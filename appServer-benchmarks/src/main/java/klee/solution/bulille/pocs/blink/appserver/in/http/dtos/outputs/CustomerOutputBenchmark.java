@@ -0,0 +1,77 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import klee.solution.bulille.pocs.blink.appserver.Fixtures;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.Activity;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building and serializing one page of the HTTP API : customers (full and summary) and activities.
+ * The ObjectMapper is configured the way Spring Boot configures the one of the controllers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerOutputBenchmark {
+
+    /** page size */
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<Customer> customers;
+    private List<CustomerOutput> customerOutputs;
+    private List<Activity> activities;
+
+    @Setup
+    public void setUp() {
+        this.objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Fixtures fixtures = new Fixtures(5000);
+        this.customers = fixtures.customers(this.size);
+        this.customerOutputs = this.customers.stream().map(CustomerOutput::from).toList();
+        this.activities = fixtures.activities(this.size);
+    }
+
+    @Benchmark
+    public List<CustomerOutput> mapCustomers() {
+        return this.customers.stream().map(CustomerOutput::from).toList();
+    }
+
+    @Benchmark
+    public List<CustomerSummaryOutput> mapCustomerSummaries() {
+        return this.customers.stream().map(CustomerSummaryOutput::from).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeCustomers() throws Exception {
+        return this.objectMapper.writeValueAsBytes(this.customerOutputs);
+    }
+
+    @Benchmark
+    public byte[] mapAndSerializeCustomers() throws Exception {
+        return this.objectMapper.writeValueAsBytes(this.customers.stream().map(CustomerOutput::from).toList());
+    }
+
+    @Benchmark
+    public byte[] serializeActivities() throws Exception {
+        return this.objectMapper.writeValueAsBytes(this.activities);
+    }
+}
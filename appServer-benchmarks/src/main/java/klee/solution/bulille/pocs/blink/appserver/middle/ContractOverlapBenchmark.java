@@ -0,0 +1,63 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import klee.solution.bulille.pocs.blink.appserver.Fixtures;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.inputs.ContractInput;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Contract;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.ContractType;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overlap check of a new contract against the contracts of 10 000 customers ({@link CustomerService#overlaps}).
+ * New contracts are one-month free trials : open-ended permanent contracts would end the check with an exception.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContractOverlapBenchmark {
+
+    private List<Customer> customers;
+    private ContractInput contractInput;
+
+    @Setup
+    public void setUp() {
+        this.customers = new Fixtures(5000).customers(10_000);
+        this.contractInput = new ContractInput();
+        this.contractInput.type = ContractType.FREE_TRIAL;
+        this.contractInput.startDate = LocalDate.of(2019, 6, 1);
+        this.contractInput.endDate = this.contractInput.startDate.plusDays(28);
+    }
+
+    /**
+     * @return the number of customers the new contract would overlap
+     */
+    @Benchmark
+    public int overlaps() {
+        int overlapping = 0;
+        for (Customer customer : this.customers) {
+            for (Contract contract : customer.contracts) {
+                if (CustomerService.overlaps(this.contractInput, contract)) {
+                    overlapping++;
+                    break;
+                }
+            }
+        }
+        return overlapping;
+    }
+}
@@ -0,0 +1,77 @@
+package klee.solution.bulille.pocs.blink.appserver.out.file;
+
+import com.opencsv.CSVReader;
+import klee.solution.bulille.pocs.blink.appserver.Fixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of a prestations CSV file, as done by {@link PrestationCsvReader} : tokenizing by opencsv, then conversion
+ * of each line.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrestationCsvBenchmark {
+
+    @Param({"10000", "100000"})
+    public int lines;
+
+    private String csv;
+    private List<String[]> tokenizedLines;
+
+    @Setup
+    public void setUp() throws Exception {
+        this.csv = new Fixtures(this.lines).prestationsCsv();
+        this.tokenizedLines = new ArrayList<>(this.lines);
+        try (CSVReader csvReader = new CSVReader(new StringReader(this.csv))) {
+            csvReader.readNext();
+            String[] line;
+            while ((line = csvReader.readNext()) != null) {
+                this.tokenizedLines.add(line);
+            }
+        }
+    }
+
+    /**
+     * Tokenizing and conversion of the whole file.
+     */
+    @Benchmark
+    public void readFile(Blackhole blackhole) throws Exception {
+        try (CSVReader csvReader = new CSVReader(new StringReader(this.csv))) {
+            PrestationCsvReader.isValidHeader(csvReader.readNext());
+            String[] line;
+            while ((line = csvReader.readNext()) != null) {
+                blackhole.consume(PrestationCsvReader.parse(line));
+            }
+        }
+    }
+
+    /**
+     * Conversion only, of lines already tokenized.
+     */
+    @Benchmark
+    public void parseLines(Blackhole blackhole) {
+        for (String[] line : this.tokenizedLines) {
+            blackhole.consume(PrestationCsvReader.parse(line));
+        }
+    }
+}
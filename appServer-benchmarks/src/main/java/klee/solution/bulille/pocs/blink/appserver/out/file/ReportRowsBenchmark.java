@@ -0,0 +1,55 @@
+package klee.solution.bulille.pocs.blink.appserver.out.file;
+
+import com.opencsv.CSVWriter;
+import klee.solution.bulille.pocs.blink.appserver.Fixtures;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows of the hourly report ({@link ReportGenerationService}) : balance of every ongoing contract, formatted and
+ * written as CSV. The output is discarded, only the computation and the formatting are measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportRowsBenchmark {
+
+    @Param({"10000", "100000"})
+    public int customers;
+
+    private List<Customer> customerList;
+    private Map<String, Double> billedAmounts;
+
+    @Setup
+    public void setUp() {
+        Fixtures fixtures = new Fixtures(5000);
+        this.customerList = fixtures.customers(this.customers);
+        this.billedAmounts = fixtures.billedAmounts(this.customerList);
+    }
+
+    @Benchmark
+    public long writeOngoingContracts() throws IOException {
+        try (CSVWriter csvWriter = new CSVWriter(Writer.nullWriter())) {
+            return ReportGenerationService.writeOngoingContracts(this.customerList.iterator(), this.billedAmounts, csvWriter);
+        }
+    }
+}
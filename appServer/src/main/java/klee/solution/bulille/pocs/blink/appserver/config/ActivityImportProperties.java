@@ -0,0 +1,9 @@
+package klee.solution.bulille.pocs.blink.appserver.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public record ActivityImportProperties(@Value("${project.activities.batch.max-size:1000}") int batchMaxSize,
+                                       @Value("${project.activities.import.batch-size:1000}") int importBatchSize) {
+}
@@ -0,0 +1,12 @@
+package klee.solution.bulille.pocs.blink.appserver.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public record CacheProperties(@Value("${project.cache.prestations.max-size:10000}") long prestationsMaxSize,
+                              @Value("${project.cache.contracts.max-size:10000}") long contractsMaxSize,
+                              @Value("${project.cache.contracts.time-to-live:PT10M}") Duration contractsTimeToLive) {
+}
@@ -0,0 +1,11 @@
+package klee.solution.bulille.pocs.blink.appserver.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * @param failOnCollectionScan whether the startup fails when a hot query is not served by an index
+ */
+@Component
+public record IndexProperties(@Value("${project.indexes.fail-on-collscan:false}") boolean failOnCollectionScan) {
+}
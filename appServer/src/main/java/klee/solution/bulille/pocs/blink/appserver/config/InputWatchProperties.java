@@ -0,0 +1,13 @@
+package klee.solution.bulille.pocs.blink.appserver.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public record InputWatchProperties(@Value("${project.input.watch.enabled:true}") boolean enabled,
+                                   @Value("${project.input.watch.quiet-period:PT2S}") Duration quietPeriod,
+                                   @Value("${project.input.workers.count:2}") int workers,
+                                   @Value("${project.input.workers.queue-capacity:16}") int queueCapacity) {
+}
@@ -0,0 +1,19 @@
+package klee.solution.bulille.pocs.blink.appserver.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * @param owner            name of this instance in the leases ; the process id and host name when blank
+ * @param reportAtMost     time after which the lease of the hourly report expires if its holder crashed
+ * @param reportAtLeast    time the lease of the hourly report is kept, even if the report was generated sooner
+ * @param inputFileAtMost  time after which the lease of an input file expires if its holder crashed
+ */
+@Component
+public record JobLeaseProperties(@Value("${project.leases.owner:}") String owner,
+                                 @Value("${project.leases.report.at-most:PT50M}") Duration reportAtMost,
+                                 @Value("${project.leases.report.at-least:PT5M}") Duration reportAtLeast,
+                                 @Value("${project.leases.input-file.at-most:PT30M}") Duration inputFileAtMost) {
+}
@@ -0,0 +1,23 @@
+package klee.solution.bulille.pocs.blink.appserver.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * @param customers    number of customers created before the run, each with one contract
+ * @param prestations  number of prestations seeded before the run
+ * @param warmup       time spent sending requests before latencies are recorded
+ * @param duration     time during which latencies are recorded
+ * @param concurrency  number of clients sending requests in a loop, each on its own virtual thread
+ * @param exitWhenDone stop the app once the report is logged
+ */
+@Component
+public record LoadTestProperties(@Value("${project.loadtest.customers:1000}") int customers,
+                                 @Value("${project.loadtest.prestations:200}") int prestations,
+                                 @Value("${project.loadtest.warmup:PT10S}") Duration warmup,
+                                 @Value("${project.loadtest.duration:PT60S}") Duration duration,
+                                 @Value("${project.loadtest.concurrency:32}") int concurrency,
+                                 @Value("${project.loadtest.exit-when-done:true}") boolean exitWhenDone) {
+}
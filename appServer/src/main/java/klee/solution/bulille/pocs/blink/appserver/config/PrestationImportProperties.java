@@ -0,0 +1,14 @@
+package klee.solution.bulille.pocs.blink.appserver.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+@Component
+public record PrestationImportProperties(@Value("${project.prestations.import.batch-size:1000}") int batchSize,
+                                         @Value("${project.prestations.import.delta:true}") boolean delta,
+                                         @Value("${project.prestations.import.parallel.threshold:256MB}") DataSize parallelThreshold,
+                                         @Value("${project.prestations.import.parallel.chunk-size:32MB}") DataSize chunkSize,
+                                         @Value("${project.prestations.import.parallel.parallelism:0}") int parallelism,
+                                         @Value("${project.prestations.import.parallel.queue-capacity:16}") int queueCapacity) {
+}
@@ -0,0 +1,21 @@
+package klee.solution.bulille.pocs.blink.appserver.config;
+
+/**
+ * Spring profiles selecting alternative implementations.
+ */
+public final class Profiles {
+
+    /** reads served by WebFlux and the reactive MongoDB driver ; see application-reactive.properties */
+    public static final String REACTIVE = "reactive";
+    public static final String NOT_REACTIVE = "!" + REACTIVE;
+
+    /** storage in memory instead of MongoDB, to load test the app alone ; see application-inmemory.properties */
+    public static final String IN_MEMORY = "inmemory";
+    public static final String NOT_IN_MEMORY = "!" + IN_MEMORY;
+
+    /** replays traffic on the app once started, then reports the latencies ; see application-loadtest.properties */
+    public static final String LOAD_TEST = "loadtest";
+
+    private Profiles() {
+    }
+}
@@ -0,0 +1,44 @@
+package klee.solution.bulille.pocs.blink.appserver.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.client.ReactorResourceFactory;
+import org.springframework.web.reactive.config.BlockingExecutionConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * With the reactive profile, only the read endpoints are non-blocking : the other controllers still call the blocking
+ * services. Their handler methods (those not returning a reactive type) are run on the application task executor, so
+ * that they never block the event loop.
+ * <p>
+ * Tomcat is on the classpath for the servlet stack, and Spring Boot would pick it over Netty for the reactive server
+ * too : the Netty server factory is declared here so that the reactive profile really runs on Netty.
+ */
+@Configuration
+@Profile(Profiles.REACTIVE)
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
+    public ReactiveWebConfig(@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor applicationTaskExecutor) {
+        this.applicationTaskExecutor = applicationTaskExecutor;
+    }
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(ObjectProvider<ReactorResourceFactory> reactorResourceFactory) {
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory();
+        reactorResourceFactory.ifAvailable(factory::setResourceFactory);
+        return factory;
+    }
+
+    @Override
+    public void configureBlockingExecution(BlockingExecutionConfigurer configurer) {
+        configurer.setExecutor(this.applicationTaskExecutor);
+    }
+}
@@ -0,0 +1,49 @@
+package klee.solution.bulille.pocs.blink.appserver.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * One scheduler per scheduled job, so that a long job (e.g. the report) never delays another one (e.g. the input
+ * folder scan). Jobs pick theirs with {@code @Scheduled(scheduler = ...)}.
+ * <p>
+ * With virtual threads, each run of a job gets its own virtual thread ; otherwise each job has a single platform
+ * thread.
+ */
+@Configuration
+public class SchedulerConfig {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SchedulerConfig.class);
+
+    public static final String REPORT_SCHEDULER = "reportScheduler";
+    public static final String INPUT_SCAN_SCHEDULER = "inputScanScheduler";
+
+    @Bean(name = REPORT_SCHEDULER)
+    public TaskScheduler reportScheduler(ThreadingProperties threadingProperties) {
+        return scheduler("report-", threadingProperties.virtual());
+    }
+
+    @Bean(name = INPUT_SCAN_SCHEDULER)
+    public TaskScheduler inputScanScheduler(ThreadingProperties threadingProperties) {
+        return scheduler("input-scan-", threadingProperties.virtual());
+    }
+
+    private static TaskScheduler scheduler(String threadNamePrefix, boolean virtual) {
+        LOGGER.info("Scheduler '{}' on {} threads", threadNamePrefix, virtual ? "virtual" : "platform");
+        if (virtual) {
+            SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+            scheduler.setVirtualThreads(true);
+            scheduler.setThreadNamePrefix(threadNamePrefix);
+            return scheduler;
+        }
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix(threadNamePrefix);
+        return scheduler;
+    }
+}
@@ -0,0 +1,19 @@
+package klee.solution.bulille.pocs.blink.appserver.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * @param enabled   record the MongoDB commands slower than the threshold
+ * @param threshold duration from which a command is recorded
+ * @param capacity  number of slow commands kept ; the oldest are dropped first
+ * @param explain   run an explain (executionStats) of each slow command, in the background
+ */
+@Component
+public record SlowQueryProperties(@Value("${project.mongo.slow-queries.enabled:true}") boolean enabled,
+                                  @Value("${project.mongo.slow-queries.threshold:PT0.1S}") Duration threshold,
+                                  @Value("${project.mongo.slow-queries.capacity:200}") int capacity,
+                                  @Value("${project.mongo.slow-queries.explain:false}") boolean explain) {
+}
@@ -0,0 +1,12 @@
+package klee.solution.bulille.pocs.blink.appserver.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * @param virtual run the HTTP requests, the scheduled jobs and the input file workers on virtual threads ; same
+ *                property as Spring Boot's, which switches Tomcat to virtual threads
+ */
+@Component
+public record ThreadingProperties(@Value("${spring.threads.virtual.enabled:false}") boolean virtual) {
+}
@@ -0,0 +1,75 @@
+package klee.solution.bulille.pocs.blink.appserver.in.file;
+
+import klee.solution.bulille.pocs.blink.appserver.config.JobLeaseProperties;
+import klee.solution.bulille.pocs.blink.appserver.middle.ActivityImportService;
+import klee.solution.bulille.pocs.blink.appserver.middle.JobLeaseService;
+import klee.solution.bulille.pocs.blink.appserver.out.file.FileArchiver;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.lease.JobLease;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Service
+public class ActivityFileReaderService implements InputFileHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ActivityFileReaderService.class);
+
+    private final ActivityImportService activityImportService;
+    private final FileArchiver fileArchiver;
+    private final String fileNamePattern;
+    private final JobLeaseService jobLeaseService;
+    private final Duration leaseAtMost;
+
+    public ActivityFileReaderService(ActivityImportService activityImportService,
+                                     FileArchiver fileArchiver,
+                                     @Value("${project.input.activities.pattern:activities*.{csv,ndjson,jsonl}}") String fileNamePattern,
+                                     JobLeaseService jobLeaseService,
+                                     JobLeaseProperties jobLeaseProperties) {
+        this.activityImportService = activityImportService;
+        this.fileArchiver = fileArchiver;
+        this.fileNamePattern = fileNamePattern;
+        this.jobLeaseService = jobLeaseService;
+        this.leaseAtMost = jobLeaseProperties.inputFileAtMost();
+    }
+
+    @Override
+    public String fileNamePattern() {
+        return this.fileNamePattern;
+    }
+
+    /**
+     * Imports the file on this instance only if no other instance is importing it (see JobLeaseService) ; the file
+     * is archived only if the lease was not taken over meanwhile.
+     */
+    @Override
+    public void process(Path activityFile) {
+        if (Files.exists(activityFile) && Files.isRegularFile(activityFile)) {
+            this.jobLeaseService.runExclusively(JobLeaseService.inputFileJob(activityFile.getFileName().toString()),
+                    this.leaseAtMost, Duration.ZERO, lease -> this.importFile(activityFile, lease));
+        }
+    }
+
+    private void importFile(Path activityFile, JobLease lease) {
+        // archived by another instance between its detection and the lease
+        if (Files.exists(activityFile) && Files.isRegularFile(activityFile)) {
+            LOGGER.info("Found {} file. Processing...", activityFile.getFileName());
+            try {
+                this.activityImportService.importFile(activityFile);
+            } catch (IOException e) {
+                LOGGER.error("Error processing activities file {}: ", activityFile.getFileName(), e);
+            } finally {
+                if (this.jobLeaseService.isHeld(lease)) {
+                    this.fileArchiver.archive(activityFile);
+                } else {
+                    LOGGER.warn("Lease of {} was taken over by another instance, leaving the file to it", activityFile.getFileName());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package klee.solution.bulille.pocs.blink.appserver.in.file;
+
+import java.nio.file.Path;
+
+/**
+ * Processes the files of the input folder whose name matches a glob pattern.
+ * Implementations are called by the {@link InputFolderWatcher} once a file is fully written ;
+ * they are expected to move the file out of the input folder when done.
+ */
+public interface InputFileHandler {
+
+    /**
+     * @return glob pattern (e.g. {@code prestations*.csv}) of the names of the files this handler processes
+     */
+    String fileNamePattern();
+
+    void process(Path file);
+}
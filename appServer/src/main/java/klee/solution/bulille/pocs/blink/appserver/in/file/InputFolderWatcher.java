@@ -0,0 +1,299 @@
+package klee.solution.bulille.pocs.blink.appserver.in.file;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import klee.solution.bulille.pocs.blink.appserver.config.FileStorageProperties;
+import klee.solution.bulille.pocs.blink.appserver.config.InputWatchProperties;
+import klee.solution.bulille.pocs.blink.appserver.config.SchedulerConfig;
+import klee.solution.bulille.pocs.blink.appserver.config.ThreadingProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.StreamSupport;
+
+/**
+ * Detects the files dropped in the input folder and hands them over to the matching {@link InputFileHandler}.
+ * <p>
+ * Files are detected through a {@link WatchService} as soon as they appear, and by a periodic scan of the
+ * folder in case watch events are lost or not supported (e.g. network shares).
+ * A file is only processed once its size and modification date stayed the same for a quiet period,
+ * so that files still being copied are not read half-written.
+ * Processing runs on a bounded worker pool ; files that do not fit in the queue of their handler are left for the next
+ * scan.
+ * The files of a handler are processed one at a time, in name order : an older catalogue file can not be imported
+ * after a newer one that was ready at the same time. Files of different handlers are processed in parallel.
+ * Workers are virtual threads when enabled : the pool still bounds how many files are read at once.
+ * The pool is published as the executor.* metrics of 'input.workers' ; files left for the next scan because it was
+ * full are counted in input.files.deferred.
+ */
+@Component
+public class InputFolderWatcher implements SmartLifecycle {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InputFolderWatcher.class);
+
+    private final Path inputPath;
+    private final InputWatchProperties properties;
+    private final List<Route> routes;
+    private final boolean virtualWorkers;
+    private final MeterRegistry meterRegistry;
+    private final Counter deferredFiles;
+
+    /** files currently waiting to be stable, queued or being processed */
+    private final Set<Path> pending = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor workers;
+    private ScheduledExecutorService stabilityChecker;
+    private WatchService watchService;
+    private volatile boolean running;
+
+    public InputFolderWatcher(FileStorageProperties fileStorageProperties,
+                              InputWatchProperties properties,
+                              ThreadingProperties threadingProperties,
+                              List<InputFileHandler> handlers,
+                              MeterRegistry meterRegistry) {
+        this.inputPath = fileStorageProperties.input();
+        this.properties = properties;
+        this.virtualWorkers = threadingProperties.virtual();
+        this.meterRegistry = meterRegistry;
+        this.deferredFiles = Counter.builder("input.files.deferred")
+                .description("Input files left for the next scan as all workers were busy")
+                .register(meterRegistry);
+        this.routes = handlers.stream()
+                .map(handler -> new Route(FileSystems.getDefault().getPathMatcher("glob:" + handler.fileNamePattern()), handler,
+                        new ConcurrentSkipListSet<>(), new AtomicBoolean()))
+                .toList();
+    }
+
+    @Override
+    public void start() {
+        this.workers = new ThreadPoolExecutor(this.properties.workers(), this.properties.workers(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.properties.queueCapacity()),
+                this.virtualWorkers
+                        ? Thread.ofVirtual().name("input-worker-", 0).factory()
+                        : Thread.ofPlatform().name("input-worker-", 0).factory());
+        new ExecutorServiceMetrics(this.workers, "input.workers", Tags.empty()).bindTo(this.meterRegistry);
+        this.stabilityChecker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("input-stability-check").daemon().factory());
+        this.running = true;
+
+        if (this.properties.enabled()) {
+            this.startWatching();
+        } else {
+            LOGGER.info("Watching of {} disabled, relying on periodic scans only", this.inputPath);
+        }
+        // files dropped while the app was down
+        this.scan();
+    }
+
+    @Override
+    public void stop() {
+        this.running = false;
+        if (this.watchService != null) {
+            try {
+                this.watchService.close();
+            } catch (IOException e) {
+                LOGGER.warn("Could not close watch service of {}", this.inputPath, e);
+            }
+        }
+        this.stabilityChecker.shutdownNow();
+        this.workers.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * Fallback for lost or unsupported watch events.
+     */
+    @Scheduled(fixedDelayString = "${project.input.poll-interval:PT1M}", scheduler = SchedulerConfig.INPUT_SCAN_SCHEDULER)
+    public void scan() {
+        if (!this.running) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.inputPath)) {
+            // in name order, so that the files found together become ready, hence are processed, in that order
+            StreamSupport.stream(files.spliterator(), false).sorted().forEach(this::offer);
+        } catch (IOException e) {
+            LOGGER.error("Could not scan input folder {}", this.inputPath, e);
+        }
+    }
+
+    private void startWatching() {
+        try {
+            Files.createDirectories(this.inputPath);
+            this.watchService = this.inputPath.getFileSystem().newWatchService();
+            this.inputPath.register(this.watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            Thread.ofPlatform().name("input-watcher").daemon().start(this::watch);
+            LOGGER.info("Watching input folder {}", this.inputPath);
+        } catch (IOException | UnsupportedOperationException e) {
+            LOGGER.warn("Could not watch input folder {}, relying on periodic scans only", this.inputPath, e);
+        }
+    }
+
+    private void watch() {
+        while (this.running) {
+            WatchKey key;
+            try {
+                key = this.watchService.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    LOGGER.warn("Watch events lost on {}, scanning the folder", this.inputPath);
+                    this.scan();
+                } else {
+                    this.offer(this.inputPath.resolve((Path) event.context()));
+                }
+            }
+            if (!key.reset()) {
+                LOGGER.warn("Input folder {} can no longer be watched, relying on periodic scans only", this.inputPath);
+                return;
+            }
+        }
+    }
+
+    private void offer(Path file) {
+        Optional<Route> route = this.routeOf(file);
+        if (route.isEmpty() || !Files.isRegularFile(file) || !this.pending.add(file)) {
+            return;
+        }
+        LOGGER.info("Detected input file {}, waiting for it to be fully written", file);
+        this.checkStability(file, route.get(), null);
+    }
+
+    /**
+     * Submits the file if it did not change since the previous check, checks it again after the quiet period otherwise.
+     */
+    private void checkStability(Path file, Route route, FileState previous) {
+        if (!this.running) {
+            return;
+        }
+        Optional<FileState> current = FileState.of(file);
+        if (current.isEmpty()) {
+            // moved away or deleted meanwhile
+            this.pending.remove(file);
+            return;
+        }
+        if (current.get().equals(previous)) {
+            this.submit(file, route);
+            return;
+        }
+        this.stabilityChecker.schedule(() -> this.checkStability(file, route, current.get()),
+                this.properties.quietPeriod().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues the file behind the other files of its handler, and starts a worker on them if none is running.
+     */
+    private void submit(Path file, Route route) {
+        if (route.ready().size() >= this.properties.queueCapacity()) {
+            this.defer(file);
+            return;
+        }
+        route.ready().add(file);
+        if (!route.draining().compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            this.workers.execute(() -> this.drain(route));
+        } catch (RejectedExecutionException e) {
+            route.draining().set(false);
+            for (Path deferred = route.ready().pollFirst(); deferred != null; deferred = route.ready().pollFirst()) {
+                this.defer(deferred);
+            }
+        }
+    }
+
+    /**
+     * Processes the files queued for the handler, in name order, until there are none left.
+     */
+    private void drain(Route route) {
+        while (true) {
+            Path file = route.ready().pollFirst();
+            if (file == null) {
+                route.draining().set(false);
+                // a file queued after the poll but before the flag was cleared would be left behind
+                if (route.ready().isEmpty() || !route.draining().compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                route.handler().process(file);
+            } catch (RuntimeException e) {
+                LOGGER.error("Processing of input file {} failed", file, e);
+            } finally {
+                this.pending.remove(file);
+            }
+        }
+    }
+
+    private void defer(Path file) {
+        LOGGER.warn("Input workers are busy, {} will be picked up by the next scan", file);
+        this.deferredFiles.increment();
+        this.pending.remove(file);
+    }
+
+    private Optional<Route> routeOf(Path file) {
+        Path fileName = file.getFileName();
+        return this.routes.stream()
+                .filter(route -> route.matcher().matches(fileName))
+                .findFirst();
+    }
+
+    /**
+     * @param ready    files of the handler waiting for a worker, sorted by name
+     * @param draining whether a worker is processing the ready files
+     */
+    private record Route(PathMatcher matcher, InputFileHandler handler, NavigableSet<Path> ready, AtomicBoolean draining) {
+    }
+
+    private record FileState(long size, FileTime lastModified) {
+
+        static Optional<FileState> of(Path file) {
+            try {
+                return Optional.of(new FileState(Files.size(file), Files.getLastModifiedTime(file)));
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+        }
+    }
+}
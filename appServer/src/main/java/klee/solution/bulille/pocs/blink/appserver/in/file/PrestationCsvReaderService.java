@@ -1,128 +1,122 @@
 package klee.solution.bulille.pocs.blink.appserver.in.file;
 
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvValidationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import klee.solution.bulille.pocs.blink.appserver.config.FileStorageProperties;
-import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.Prestation;
-import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.PrestationRepository;
+import klee.solution.bulille.pocs.blink.appserver.config.JobLeaseProperties;
+import klee.solution.bulille.pocs.blink.appserver.middle.JobLeaseService;
+import klee.solution.bulille.pocs.blink.appserver.middle.PrestationImportService;
+import klee.solution.bulille.pocs.blink.appserver.middle.PrestationImportSummary;
+import klee.solution.bulille.pocs.blink.appserver.out.file.FileArchiver;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.lease.JobLease;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.FileReader;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Optional;
+import java.time.Duration;
 
 @Service
-public class PrestationCsvReaderService {
+public class PrestationCsvReaderService implements InputFileHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(PrestationCsvReaderService.class);
-    private final PrestationRepository prestationRepository;
+    private final PrestationImportService prestationImportService;
+    private final FileArchiver fileArchiver;
     private final Path inputPath;
-    private final Path archivePath;
-    private static final String CSV_FILENAME = "prestations.csv";
+    private final String fileNamePattern;
+    private final MeterRegistry meterRegistry;
+    private final JobLeaseService jobLeaseService;
+    private final Duration leaseAtMost;
 
-    public PrestationCsvReaderService(PrestationRepository prestationRepository, FileStorageProperties fileStorageProperties) {
-        this.prestationRepository = prestationRepository;
+    public PrestationCsvReaderService(PrestationImportService prestationImportService,
+                                      FileArchiver fileArchiver,
+                                      FileStorageProperties fileStorageProperties,
+                                      @Value("${project.input.prestations.pattern:prestations*.csv}") String fileNamePattern,
+                                      MeterRegistry meterRegistry,
+                                      JobLeaseService jobLeaseService,
+                                      JobLeaseProperties jobLeaseProperties) {
+        this.prestationImportService = prestationImportService;
+        this.fileArchiver = fileArchiver;
+        this.fileNamePattern = fileNamePattern;
+        this.meterRegistry = meterRegistry;
+        this.jobLeaseService = jobLeaseService;
+        this.leaseAtMost = jobLeaseProperties.inputFileAtMost();
 
         this.inputPath = fileStorageProperties.input();
-        this.archivePath = fileStorageProperties.archives();
 
         try {
             Files.createDirectories(this.inputPath);
-            Files.createDirectories(this.archivePath);
             logger.info("Input directory: {}", this.inputPath);
-            logger.info("Archive directory: {}", this.archivePath);
         } catch (IOException e) {
-            logger.error("Could not create input or archive directory!", e);
+            logger.error("Could not create input directory!", e);
             // This could be a fatal error for this service's functionality.
         }
     }
 
-    // Schedule to run, e.g., every minute. Adjust cron as needed.
-    // For testing, every minute is fine. For production, it might be less frequent.
-    @Scheduled(cron = "0 * * * * ?") // Every minute
-    public void processPrestationCsvFile() {
-        Path csvFile = inputPath.resolve(CSV_FILENAME);
-        if (Files.exists(csvFile) && Files.isRegularFile(csvFile)) {
-            logger.info("Found {} file. Processing...", CSV_FILENAME);
-            try (FileReader fileReader = new FileReader(csvFile.toFile());
-                 CSVReader csvReader = new CSVReader(fileReader)) {
-
-                String[] header = csvReader.readNext(); // Read header
-                if (header == null || header.length < 3) { // Basic validation for expected columns
-                    logger.error("CSV header is missing or does not have enough columns. Expected salesSystemId,name,unitPrice");
-                    // Potentially move to a "failed" directory or log extensively
-                    return;
-                }
-                // Simple validation of header names (optional but good)
-                if (!"salesSystemId".equalsIgnoreCase(header[0]) ||
-                    !"name".equalsIgnoreCase(header[1]) ||
-                    !"unitPrice".equalsIgnoreCase(header[2])) {
-                    logger.warn("CSV header names do not match expected 'salesSystemId,name,unitPrice'. Processing based on column order.");
-                }
-
-
-                String[] line;
-                while ((line = csvReader.readNext()) != null) {
-                    if (line.length >= 3) {
-                        String salesSystemId = line[0];
-                        String name = line[1];
-                        double unitPrice;
-                        try {
-                            unitPrice = Double.parseDouble(line[2]);
-                        } catch (NumberFormatException e) {
-                            logger.error("Skipping line due to invalid unitPrice format: {}. Line: {}", line[2], String.join(",", line));
-                            continue;
-                        }
+    @Override
+    public String fileNamePattern() {
+        return fileNamePattern;
+    }
 
-                        Optional<Prestation> existingPrestationOpt = prestationRepository.findById(salesSystemId);
-                        if (existingPrestationOpt.isPresent()) {
-                            Prestation prestationToUpdate = existingPrestationOpt.get();
-                            prestationToUpdate.name = name;
-                            prestationToUpdate.unitPrice = unitPrice;
-                            prestationRepository.save(prestationToUpdate);
-                            logger.info("Updated prestation: {}", salesSystemId);
-                        } else {
-                            Prestation newPrestation = new Prestation();
-                            newPrestation.salesSystemId = salesSystemId;
-                            newPrestation.name = name;
-                            newPrestation.unitPrice = unitPrice;
-                            prestationRepository.save(newPrestation);
-                            logger.info("Created new prestation: {}", salesSystemId);
-                        }
-                    } else {
-                         logger.warn("Skipping malformed line (not enough columns): {}", String.join(",", line));
-                    }
-                }
+    // Called by the InputFolderWatcher once a matching file is fully written in the input folder
+    @Override
+    public void process(Path csvFile) {
+        processPrestationCsvFile(csvFile);
+    }
 
+    /**
+     * Imports the file on this instance only if no other instance is importing it (see JobLeaseService) ; the file
+     * is archived only if the lease was not taken over meanwhile.
+     * Timed as prestations.import (tagged by outcome) ; the imported lines are counted in prestations.import.rows,
+     * tagged by result.
+     */
+    public void processPrestationCsvFile(Path csvFile) {
+        if (Files.exists(csvFile) && Files.isRegularFile(csvFile)) {
+            this.jobLeaseService.runExclusively(JobLeaseService.inputFileJob(csvFile.getFileName().toString()),
+                    this.leaseAtMost, Duration.ZERO, lease -> this.importFile(csvFile, lease));
+        }
+    }
 
-            } catch (IOException | CsvValidationException e) {
-                logger.error("Error processing CSV file {}: ", CSV_FILENAME, e);
+    private void importFile(Path csvFile, JobLease lease) {
+        // archived by another instance between its detection and the lease
+        if (Files.exists(csvFile) && Files.isRegularFile(csvFile)) {
+            logger.info("Found {} file. Processing...", csvFile.getFileName());
+            Timer.Sample sample = Timer.start(this.meterRegistry);
+            String outcome = "failure";
+            try {
+                PrestationImportSummary summary = prestationImportService.importFile(csvFile);
+                this.countRows("inserted", summary.inserted());
+                this.countRows("updated", summary.updated());
+                this.countRows("unchanged", summary.unchanged());
+                this.countRows("rejected", summary.rejected());
+                outcome = "success";
+            } catch (IOException e) {
+                logger.error("Error processing CSV file {}: ", csvFile.getFileName(), e);
                 // Consider moving to a "failed" directory
-            }finally {
-                // Move processed file to archive
-                archiveFile(csvFile);
+            } finally {
+                sample.stop(Timer.builder("prestations.import")
+                        .description("Import of a prestations file, archiving excluded")
+                        .tag("outcome", outcome)
+                        .register(this.meterRegistry));
+                // Move processed file to archive, unless another instance took the file over
+                if (this.jobLeaseService.isHeld(lease)) {
+                    fileArchiver.archive(csvFile);
+                } else {
+                    logger.warn("Lease of {} was taken over by another instance, leaving the file to it", csvFile.getFileName());
+                }
             }
         }
     }
 
-    private void archiveFile(Path fileToArchive) {
-        try {
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-            Path archivedFileName = Paths.get(CSV_FILENAME + "." + timestamp);
-            Path targetPath = archivePath.resolve(archivedFileName);
-            Files.move(fileToArchive, targetPath, StandardCopyOption.REPLACE_EXISTING);
-            logger.info("Archived processed file to: {}", targetPath);
-        } catch (IOException e) {
-            logger.error("Could not archive file {}: ", fileToArchive, e);
-        }
+    private void countRows(String result, long rows) {
+        Counter.builder("prestations.import.rows")
+                .description("Lines of the prestations files, by what was done with them")
+                .tag("result", result)
+                .register(this.meterRegistry)
+                .increment(rows);
     }
 }
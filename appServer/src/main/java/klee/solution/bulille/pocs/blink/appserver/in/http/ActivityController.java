@@ -1,28 +1,40 @@
 package klee.solution.bulille.pocs.blink.appserver.in.http;
 
+import klee.solution.bulille.pocs.blink.appserver.config.ActivityImportProperties;
 import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.inputs.ActivityInput;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs.ActivityBatchOutput;
+import klee.solution.bulille.pocs.blink.appserver.middle.ActivityLineResult;
 import klee.solution.bulille.pocs.blink.appserver.middle.ActivityService;
 import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.Activity;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import java.util.List;
 
+import java.util.List;
 
+/**
+ * Writes of the activities ; reads are served by {@link ActivityReadController}, or {@link ReactiveActivityController}
+ * with the reactive profile.
+ */
 @RestController
 @RequestMapping("/activities")
 public class ActivityController {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ActivityController.class);
+
     private final ActivityService activityService;
+    private final int batchMaxSize;
 
-    public ActivityController(ActivityService activityService) {
+    public ActivityController(ActivityService activityService,
+                              ActivityImportProperties activityImportProperties) {
         this.activityService = activityService;
+        this.batchMaxSize = activityImportProperties.batchMaxSize();
     }
 
     @PostMapping
@@ -45,17 +57,23 @@ public class ActivityController {
         }
     }
 
-    @GetMapping("/contract/{contractId}")
-    public ResponseEntity<?> getActivitiesForContract(@PathVariable String contractId) {
+    /**
+     * Adds many activities at once ; each one is accepted or rejected on its own.
+     * Answers 200 with the outcome of every activity, even if some (or all) were rejected.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> addActivities(@RequestBody List<ActivityInput> activityInputs) {
         try {
-            List<Activity> activities = activityService.getActivitiesForContract(contractId);
-            // No activities found is not an error, just an empty list.
-            return ResponseEntity.ok(activities);
-        } catch (IllegalArgumentException e) {
-            // Log e.getMessage()
-            return ResponseEntity.badRequest().body(e.getMessage());
+            if (activityInputs == null || activityInputs.isEmpty()) {
+                return ResponseEntity.badRequest().body("No activity in batch.");
+            }
+            if (activityInputs.size() > this.batchMaxSize) {
+                return ResponseEntity.badRequest().body("Too many activities in batch (" + activityInputs.size() + "), at most " + this.batchMaxSize + " are accepted.");
+            }
+            List<ActivityLineResult> results = activityService.addActivities(activityInputs);
+            return ResponseEntity.ok(ActivityBatchOutput.from(results));
         } catch (Exception e) {
-            // Log e
+            LOGGER.error("Batch of {} activities failed", activityInputs.size(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred.");
         }
     }
@@ -0,0 +1,124 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.middle.ActivityService;
+import klee.solution.bulille.pocs.blink.appserver.middle.CursorPage;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.Activity;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Reads of the activities on Spring MVC ; see {@link ReactiveActivityController} for the reactive profile.
+ */
+@RestController
+@RequestMapping("/activities")
+@Profile(Profiles.NOT_REACTIVE)
+public class ActivityReadController {
+
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int DEFAULT_PAGE_SIZE = 100;
+
+    private final ActivityService activityService;
+    private final ObjectMapper objectMapper;
+
+    public ActivityReadController(ActivityService activityService, ObjectMapper objectMapper) {
+        this.activityService = activityService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * The activities of a contract, sorted by date ; from and to (inclusive) filter on the activity date.
+     * Without 'cursor' nor 'size', every activity is returned in a JSON array, as before pagination existed.
+     * Passing either switches to keyset pages ('size' activities, 100 by default) : an empty cursor asks for the first
+     * page, then the nextCursor of a page gives the next one.
+     */
+    @GetMapping("/contract/{contractId}")
+    public ResponseEntity<?> getActivitiesForContract(
+            @PathVariable String contractId,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size) {
+        if (size != null && (size < 1 || size > MAX_PAGE_SIZE)) {
+            return ResponseEntity.badRequest().body("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        try {
+            if (cursor == null && size == null) {
+                List<Activity> activities = activityService.getAllActivitiesForContract(contractId,
+                        Optional.ofNullable(from), Optional.ofNullable(to));
+                return ResponseEntity.ok(activities);
+            }
+            CursorPage<Activity> activities = activityService.getActivitiesForContract(contractId,
+                    Optional.ofNullable(from), Optional.ofNullable(to), pageCursor(cursor), Objects.requireNonNullElse(size, DEFAULT_PAGE_SIZE));
+            // No activities found is not an error, just an empty page.
+            return ResponseEntity.ok(activities);
+        } catch (IllegalArgumentException e) {
+            // Log e.getMessage()
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (Exception e) {
+            // Log e
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("An unexpected error occurred.");
+        }
+    }
+
+    /**
+     * @return the cursor of the requested page, empty for the first page
+     */
+    static Optional<String> pageCursor(String cursor) {
+        return Optional.ofNullable(cursor).filter(token -> !token.isBlank());
+    }
+
+    /**
+     * Every activity of a contract (optionally from/to), sorted by date, as newline-delimited JSON.
+     * Activities are written as they are read from the database, so the response can be of any size.
+     */
+    @GetMapping(value = "/contract/{contractId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamActivitiesForContract(
+            @PathVariable String contractId,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (contractId == null || contractId.isBlank() || (from != null && to != null && from.isAfter(to))) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = outputStream -> {
+            // the response stream stays open between activities, and is only flushed when its buffer is full
+            ObjectWriter writer = objectMapper.writerFor(Activity.class)
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            try {
+                activityService.exportActivitiesForContract(contractId, Optional.ofNullable(from), Optional.ofNullable(to), activity -> {
+                    try {
+                        writer.writeValue(outputStream, activity);
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // most likely the client went away
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
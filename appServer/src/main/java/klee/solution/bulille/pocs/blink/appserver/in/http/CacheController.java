@@ -0,0 +1,28 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http;
+
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs.CacheStatsOutput;
+import klee.solution.bulille.pocs.blink.appserver.middle.CacheService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/caches")
+public class CacheController {
+
+    private final CacheService cacheService;
+
+    public CacheController(CacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<CacheStatsOutput>> stats() {
+        return ResponseEntity.ok(this.cacheService.usages().stream()
+                .map(CacheStatsOutput::from)
+                .toList());
+    }
+}
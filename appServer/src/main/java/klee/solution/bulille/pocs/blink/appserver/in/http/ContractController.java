@@ -0,0 +1,38 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http;
+
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs.ContractBalanceOutput;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs.ContractOutput;
+import klee.solution.bulille.pocs.blink.appserver.middle.ContractService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/contracts")
+public class ContractController {
+
+    private final ContractService contractService;
+
+    public ContractController(ContractService contractService) {
+        this.contractService = contractService;
+    }
+
+    @GetMapping("/{contractId}")
+    public ResponseEntity<ContractOutput> getContract(@PathVariable String contractId) {
+        return this.contractService.find(contractId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Sold, consumed and remaining units and amounts of each prestation of the contract, as of the last saved activity.
+     */
+    @GetMapping("/{contractId}/balance")
+    public ResponseEntity<ContractBalanceOutput> getBalance(@PathVariable String contractId) {
+        return this.contractService.balance(contractId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
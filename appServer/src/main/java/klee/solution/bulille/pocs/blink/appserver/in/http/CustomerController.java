@@ -5,14 +5,9 @@ import klee.solution.bulille.pocs.blink.appserver.middle.CustomerService;
 import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId;
 import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.inputs.CustomerInput;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -20,9 +15,10 @@ import org.springframework.http.HttpStatus;
 import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.inputs.ContractInput;
 // CustomerId is already imported
 
-
-import java.util.Optional;
-
+/**
+ * Writes of the customers ; reads are served by {@link CustomerReadController}, or {@link ReactiveCustomerController}
+ * with the reactive profile.
+ */
 @RestController
 @RequestMapping("/customers")
 public class CustomerController {
@@ -33,31 +29,6 @@ public class CustomerController {
         this.customerService = customerService;
     }
 
-    @GetMapping("/{id}")
-    public ResponseEntity<CustomerOutput> getCustomer(@PathVariable("id") String id){
-
-        var customerId = new CustomerId(id);
-        Optional<Customer> customer = this.customerService.find(customerId);
-
-
-        return customer
-                .map(CustomerOutput::from)
-                .map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
-
-    }
-
-    @GetMapping("/search")
-    public ResponseEntity<Page<CustomerOutput>> searchCustomers(
-            @RequestParam(name = "name", required = false) String nameQuery,
-            @RequestParam(name = "page", defaultValue = "0") int page,
-            @RequestParam(name = "size", defaultValue = "10") int size) {
-        
-        Pageable pageable = PageRequest.of(page, size);
-        Page<CustomerOutput> customers = customerService.searchCustomers(nameQuery, pageable);
-
-        return ResponseEntity.ok(customers);
-    }
-
     @PostMapping
     public ResponseEntity<CustomerOutput> createCustomer(@RequestBody CustomerInput customerInput) {
         // Basic validation example (can be enhanced with @Valid and validation annotations on DTO)
@@ -0,0 +1,116 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http;
+
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs.CustomerOutput;
+import klee.solution.bulille.pocs.blink.appserver.middle.CustomerService;
+import klee.solution.bulille.pocs.blink.appserver.middle.NameSearchMode;
+import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Reads of the customers on Spring MVC ; see {@link ReactiveCustomerController} for the reactive profile.
+ */
+@RestController
+@RequestMapping("/customers")
+@Profile(Profiles.NOT_REACTIVE)
+public class CustomerReadController {
+
+    static final int MAX_PAGE_SIZE = 1000;
+    static final String EXPAND_CONTRACTS = "contracts";
+
+    private final CustomerService customerService;
+
+    public CustomerReadController(CustomerService customerService) {
+        this.customerService = customerService;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<CustomerOutput> getCustomer(@PathVariable("id") String id){
+
+        var customerId = new CustomerId(id);
+        Optional<Customer> customer = this.customerService.find(customerId);
+
+
+        return customer
+                .map(CustomerOutput::from)
+                .map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+
+    }
+
+    /**
+     * Offset pagination by default ('page', from 0), answered with a Spring Page ; its deep pages get slower.
+     * Passing 'cursor' switches to the keyset pagination, whose pages all cost the same : an empty cursor asks for
+     * the first page, then the nextCursor of a page gives the next one.
+     * Customers are summaries (CustomerSummaryOutput) unless expand=contracts is passed.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchCustomers(
+            @RequestParam(name = "name", required = false) String nameQuery,
+            @RequestParam(name = "mode", defaultValue = "contains") String mode,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "10") int size,
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal,
+            @RequestParam(name = "expand", required = false) String expand) {
+
+        if (expand != null && !EXPAND_CONTRACTS.equals(expand)) {
+            return ResponseEntity.badRequest().body("expand only accepts '" + EXPAND_CONTRACTS + "'");
+        }
+        boolean full = expand != null;
+        NameSearchMode searchMode;
+        try {
+            searchMode = NameSearchMode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (cursor == null) {
+            if (page < 0) {
+                return ResponseEntity.badRequest().body("page must not be negative");
+            }
+            Pageable pageable = PageRequest.of(page, size);
+            try {
+                return ResponseEntity.ok(full
+                        ? customerService.searchCustomers(nameQuery, searchMode, pageable)
+                        : customerService.searchCustomerSummaries(nameQuery, searchMode, pageable));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            }
+        }
+        Optional<String> after = Optional.of(cursor).filter(token -> !token.isBlank());
+        try {
+            return ResponseEntity.ok(full
+                    ? customerService.searchCustomers(nameQuery, searchMode, after, size, includeTotal)
+                    : customerService.searchCustomerSummaries(nameQuery, searchMode, after, size, includeTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * All customers, keyset-paginated on their id ; summaries unless expand=contracts is passed.
+     */
+    @GetMapping
+    public ResponseEntity<?> listCustomers(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "10") int size,
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal,
+            @RequestParam(name = "expand", required = false) String expand) {
+        return this.searchCustomers(null, NameSearchMode.CONTAINS.name(), Objects.requireNonNullElse(cursor, ""), 0, size, includeTotal, expand);
+    }
+}
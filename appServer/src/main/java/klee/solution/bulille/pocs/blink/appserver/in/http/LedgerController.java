@@ -0,0 +1,33 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http;
+
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs.LedgerRebuildOutput;
+import klee.solution.bulille.pocs.blink.appserver.middle.ContractLedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/ledger")
+public class LedgerController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LedgerController.class);
+
+    private final ContractLedgerService contractLedgerService;
+
+    public LedgerController(ContractLedgerService contractLedgerService) {
+        this.contractLedgerService = contractLedgerService;
+    }
+
+    /**
+     * To be called while no activity is being added : the rebuild may miss the activities added meanwhile.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<LedgerRebuildOutput> rebuild() {
+        LOGGER.info("POST /ledger/rebuild");
+        long entries = this.contractLedgerService.rebuild();
+        return ResponseEntity.ok(new LedgerRebuildOutput(entries));
+    }
+}
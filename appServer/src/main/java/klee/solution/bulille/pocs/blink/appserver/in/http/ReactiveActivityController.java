@@ -0,0 +1,76 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http;
+
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.middle.ReactiveActivityService;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.Activity;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Reads of the activities with the reactive profile ; same API as {@link ActivityReadController}.
+ */
+@RestController
+@RequestMapping("/activities")
+@Profile(Profiles.REACTIVE)
+public class ReactiveActivityController {
+
+    private final ReactiveActivityService activityService;
+
+    public ReactiveActivityController(ReactiveActivityService activityService) {
+        this.activityService = activityService;
+    }
+
+    /**
+     * The activities of a contract, sorted by date ; from and to (inclusive) filter on the activity date.
+     * Without 'cursor' nor 'size', every activity is returned in a JSON array ; passing either switches to keyset
+     * pages, see {@link ActivityReadController}.
+     */
+    @GetMapping("/contract/{contractId}")
+    public Mono<ResponseEntity<?>> getActivitiesForContract(
+            @PathVariable String contractId,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", required = false) Integer size) {
+        if (size != null && (size < 1 || size > ActivityReadController.MAX_PAGE_SIZE)) {
+            return Mono.just(ResponseEntity.badRequest().body("size must be between 1 and " + ActivityReadController.MAX_PAGE_SIZE));
+        }
+        Mono<?> activities = cursor == null && size == null
+                ? this.activityService.exportActivitiesForContract(contractId, Optional.ofNullable(from), Optional.ofNullable(to)).collectList()
+                : this.activityService.getActivitiesForContract(contractId, Optional.ofNullable(from), Optional.ofNullable(to),
+                        ActivityReadController.pageCursor(cursor), Objects.requireNonNullElse(size, ActivityReadController.DEFAULT_PAGE_SIZE));
+        return activities
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    /**
+     * Every activity of a contract (optionally from/to), sorted by date, as newline-delimited JSON.
+     * Activities are read from the database only as fast as the client reads the response.
+     */
+    @GetMapping(value = "/contract/{contractId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<Activity>> streamActivitiesForContract(
+            @PathVariable String contractId,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (contractId == null || contractId.isBlank() || (from != null && to != null && from.isAfter(to))) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(this.activityService.exportActivitiesForContract(contractId, Optional.ofNullable(from), Optional.ofNullable(to)));
+    }
+}
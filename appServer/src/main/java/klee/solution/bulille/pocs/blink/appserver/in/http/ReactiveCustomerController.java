@@ -0,0 +1,104 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http;
+
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs.CustomerOutput;
+import klee.solution.bulille.pocs.blink.appserver.middle.NameSearchMode;
+import klee.solution.bulille.pocs.blink.appserver.middle.ReactiveCustomerService;
+import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Reads of the customers with the reactive profile ; same API as {@link CustomerReadController}.
+ */
+@RestController
+@RequestMapping("/customers")
+@Profile(Profiles.REACTIVE)
+public class ReactiveCustomerController {
+
+    private final ReactiveCustomerService customerService;
+
+    public ReactiveCustomerController(ReactiveCustomerService customerService) {
+        this.customerService = customerService;
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<CustomerOutput>> getCustomer(@PathVariable("id") String id) {
+        return this.customerService.find(new CustomerId(id))
+                .map(CustomerOutput::from)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Offset pagination by default ('page', from 0), answered with a Spring Page ; its deep pages get slower.
+     * Passing 'cursor' switches to the keyset pagination, whose pages all cost the same : an empty cursor asks for
+     * the first page, then the nextCursor of a page gives the next one.
+     * Customers are summaries (CustomerSummaryOutput) unless expand=contracts is passed.
+     */
+    @GetMapping("/search")
+    public Mono<ResponseEntity<?>> searchCustomers(
+            @RequestParam(name = "name", required = false) String nameQuery,
+            @RequestParam(name = "mode", defaultValue = "contains") String mode,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "page", defaultValue = "0") int page,
+            @RequestParam(name = "size", defaultValue = "10") int size,
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal,
+            @RequestParam(name = "expand", required = false) String expand) {
+
+        if (expand != null && !CustomerReadController.EXPAND_CONTRACTS.equals(expand)) {
+            return Mono.just(ResponseEntity.badRequest().body("expand only accepts '" + CustomerReadController.EXPAND_CONTRACTS + "'"));
+        }
+        NameSearchMode searchMode;
+        try {
+            searchMode = NameSearchMode.valueOf(mode.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        if (size < 1 || size > CustomerReadController.MAX_PAGE_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().body("size must be between 1 and " + CustomerReadController.MAX_PAGE_SIZE));
+        }
+        Mono<?> customers;
+        if (cursor == null) {
+            if (page < 0) {
+                return Mono.just(ResponseEntity.badRequest().body("page must not be negative"));
+            }
+            Pageable pageable = PageRequest.of(page, size);
+            customers = expand != null
+                    ? this.customerService.searchCustomers(nameQuery, searchMode, pageable)
+                    : this.customerService.searchCustomerSummaries(nameQuery, searchMode, pageable);
+        } else {
+            Optional<String> after = Optional.of(cursor).filter(token -> !token.isBlank());
+            customers = expand != null
+                    ? this.customerService.searchCustomers(nameQuery, searchMode, after, size, includeTotal)
+                    : this.customerService.searchCustomerSummaries(nameQuery, searchMode, after, size, includeTotal);
+        }
+        return customers
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, e -> Mono.just(ResponseEntity.badRequest().body(e.getMessage())));
+    }
+
+    /**
+     * All customers, keyset-paginated on their id ; summaries unless expand=contracts is passed.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<?>> listCustomers(
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "size", defaultValue = "10") int size,
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal,
+            @RequestParam(name = "expand", required = false) String expand) {
+        return this.searchCustomers(null, NameSearchMode.CONTAINS.name(), Objects.requireNonNullElse(cursor, ""), 0, size, includeTotal, expand);
+    }
+}
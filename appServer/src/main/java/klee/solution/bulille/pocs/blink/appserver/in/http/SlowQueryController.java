@@ -0,0 +1,42 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http;
+
+import klee.solution.bulille.pocs.blink.appserver.middle.SlowQueryService;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.SlowQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * The last MongoDB commands slower than project.mongo.slow-queries.threshold, with their caller and, when enabled,
+ * their plan ; to find the missing indexes without enabling the database profiler.
+ */
+@RestController
+@RequestMapping("/slow-queries")
+public class SlowQueryController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowQueryController.class);
+
+    private final SlowQueryService slowQueryService;
+
+    public SlowQueryController(SlowQueryService slowQueryService) {
+        this.slowQueryService = slowQueryService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<SlowQuery>> recent() {
+        return ResponseEntity.ok(this.slowQueryService.recent());
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> clear() {
+        LOGGER.info("DELETE /slow-queries");
+        this.slowQueryService.clear();
+        return ResponseEntity.noContent().build();
+    }
+}
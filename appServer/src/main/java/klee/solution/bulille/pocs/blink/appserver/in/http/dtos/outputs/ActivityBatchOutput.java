@@ -0,0 +1,19 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs;
+
+import klee.solution.bulille.pocs.blink.appserver.middle.ActivityLineResult;
+
+import java.util.List;
+
+public record ActivityBatchOutput(long accepted,
+                                  long rejected,
+                                  List<ActivityLineOutput> lines) {
+
+    public static ActivityBatchOutput from(List<ActivityLineResult> results) {
+        long accepted = results.stream().filter(ActivityLineResult::isAccepted).count();
+        return new ActivityBatchOutput(
+                accepted,
+                results.size() - accepted,
+                results.stream().map(ActivityLineOutput::from).toList()
+        );
+    }
+}
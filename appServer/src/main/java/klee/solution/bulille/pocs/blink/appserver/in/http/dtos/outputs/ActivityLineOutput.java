@@ -0,0 +1,23 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs;
+
+import klee.solution.bulille.pocs.blink.appserver.middle.ActivityLineResult;
+
+/**
+ * @param line       0-based position of the activity in the posted batch
+ * @param activityId id of the stored activity, null if rejected
+ * @param message    why the activity was rejected, null if accepted
+ */
+public record ActivityLineOutput(int line,
+                                 boolean accepted,
+                                 String activityId,
+                                 String message) {
+
+    public static ActivityLineOutput from(ActivityLineResult result) {
+        return new ActivityLineOutput(
+                result.index(),
+                result.isAccepted(),
+                result.activity().map(activity -> activity.id.toHexString()).orElse(null),
+                result.rejection().orElse(null)
+        );
+    }
+}
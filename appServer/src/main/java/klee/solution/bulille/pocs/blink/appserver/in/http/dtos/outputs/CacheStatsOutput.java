@@ -0,0 +1,24 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import klee.solution.bulille.pocs.blink.appserver.middle.CacheUsage;
+
+public record CacheStatsOutput(String name,
+                               long size,
+                               long hitCount,
+                               long missCount,
+                               double hitRatio,
+                               long evictionCount) {
+
+    public static CacheStatsOutput from(CacheUsage usage) {
+        CacheStats stats = usage.stats();
+        return new CacheStatsOutput(
+                usage.name(),
+                usage.size(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount()
+        );
+    }
+}
@@ -0,0 +1,11 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs;
+
+import java.util.List;
+
+/**
+ * Consumption of a contract, read from the contract ledger : up to date with the last saved activity.
+ */
+public record ContractBalanceOutput(String contractId,
+                                    String customerId,
+                                    List<PrestationBalanceOutput> prestations) {
+}
@@ -0,0 +1,30 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs;
+
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Contract;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.ContractType;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.SoldPrestation;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * @param end null for an open-ended contract
+ */
+public record ContractOutput(String id,
+                             String customerId,
+                             ContractType type,
+                             LocalDate start,
+                             LocalDate end,
+                             List<SoldPrestation> soldPrestations) {
+
+    public static ContractOutput from(String customerId, Contract contract) {
+        return new ContractOutput(
+                contract.id,
+                customerId,
+                contract.type,
+                contract.start,
+                contract.end,
+                contract.soldPrestations == null ? List.of() : contract.soldPrestations
+        );
+    }
+}
@@ -0,0 +1,43 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs;
+
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Contract;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.ContractType;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * @param activeContractId   the contract running today, null if none
+ * @param activeContractType type of the contract running today, null if none
+ */
+public record CustomerSummaryOutput(String id,
+                                    String firstName,
+                                    String givenName,
+                                    LocalDate dateOfBirth,
+                                    String activeContractId,
+                                    ContractType activeContractType) {
+
+    public static CustomerSummaryOutput from(Customer customer) {
+        Optional<Contract> activeContract = activeContract(customer, LocalDate.now());
+        return new CustomerSummaryOutput(
+                customer.id.toString(),
+                customer.firstName,
+                customer.givenName,
+                customer.dateOfBirth,
+                activeContract.map(contract -> contract.id).orElse(null),
+                activeContract.map(contract -> contract.type).orElse(null)
+        );
+    }
+
+    private static Optional<Contract> activeContract(Customer customer, LocalDate today) {
+        if (customer.contracts == null) {
+            return Optional.empty();
+        }
+        // contracts of a customer do not overlap : at most one is running
+        return customer.contracts.stream()
+                .filter(contract -> contract.start != null && !contract.start.isAfter(today))
+                .filter(contract -> contract.end == null || !contract.end.isBefore(today))
+                .findFirst();
+    }
+}
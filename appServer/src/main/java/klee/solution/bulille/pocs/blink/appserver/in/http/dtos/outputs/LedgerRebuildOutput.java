@@ -0,0 +1,4 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs;
+
+public record LedgerRebuildOutput(long entries) {
+}
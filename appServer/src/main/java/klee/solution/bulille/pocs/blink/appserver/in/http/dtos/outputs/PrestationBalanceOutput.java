@@ -0,0 +1,29 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs;
+
+/**
+ * What has been sold and consumed of one prestation of a contract.
+ *
+ * @param unitsSold  0 if the prestation was consumed without being sold in the contract
+ * @param amountSold total billed amount of the sold units
+ */
+public record PrestationBalanceOutput(String salesSystemId,
+                                      long unitsSold,
+                                      double unitsConsumed,
+                                      double unitsRemaining,
+                                      double amountSold,
+                                      double amountConsumed,
+                                      double amountRemaining) {
+
+    public static PrestationBalanceOutput of(String salesSystemId, long unitsSold, double amountSold,
+                                             double unitsConsumed, double amountConsumed) {
+        return new PrestationBalanceOutput(
+                salesSystemId,
+                unitsSold,
+                unitsConsumed,
+                unitsSold - unitsConsumed,
+                amountSold,
+                amountConsumed,
+                amountSold - amountConsumed
+        );
+    }
+}
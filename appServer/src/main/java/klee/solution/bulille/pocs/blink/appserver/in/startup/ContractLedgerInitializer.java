@@ -0,0 +1,32 @@
+package klee.solution.bulille.pocs.blink.appserver.in.startup;
+
+import klee.solution.bulille.pocs.blink.appserver.middle.ContractLedgerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes sure the contract ledger exists before activities are recorded and reports are generated.
+ */
+@Component
+@Order(1)
+@ConditionalOnProperty(name = "project.ledger.init-on-startup", havingValue = "true", matchIfMissing = true)
+public class ContractLedgerInitializer implements CommandLineRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContractLedgerInitializer.class);
+
+    private final ContractLedgerService contractLedgerService;
+
+    public ContractLedgerInitializer(ContractLedgerService contractLedgerService) {
+        this.contractLedgerService = contractLedgerService;
+    }
+
+    @Override
+    public void run(String... args) {
+        LOGGER.info("Checking contract ledger");
+        this.contractLedgerService.rebuildIfMissing();
+    }
+}
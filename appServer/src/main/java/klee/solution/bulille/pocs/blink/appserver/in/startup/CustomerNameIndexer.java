@@ -0,0 +1,33 @@
+package klee.solution.bulille.pocs.blink.appserver.in.startup;
+
+import klee.solution.bulille.pocs.blink.appserver.middle.CustomerService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets the name search keys of the customers saved before name search was indexed, or indexed with older rules ;
+ * a no-op once they all have up-to-date ones.
+ */
+@Component
+@Order(3)
+@ConditionalOnProperty(name = "project.customers.index-names-on-startup", havingValue = "true", matchIfMissing = true)
+public class CustomerNameIndexer implements CommandLineRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerNameIndexer.class);
+
+    private final CustomerService customerService;
+
+    public CustomerNameIndexer(CustomerService customerService) {
+        this.customerService = customerService;
+    }
+
+    @Override
+    public void run(String... args) {
+        LOGGER.info("Checking customer name search keys");
+        this.customerService.indexMissingNames();
+    }
+}
@@ -0,0 +1,32 @@
+package klee.solution.bulille.pocs.blink.appserver.in.startup;
+
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.middle.IndexService;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the indexes declared on the documents, then checks that the hot queries do not scan whole collections.
+ * Runs after the {@link ContractLedgerInitializer} : creating an index creates its collection, which would be
+ * mistaken for an existing ledger.
+ */
+@Component
+@Profile(Profiles.NOT_IN_MEMORY)
+@Order(2)
+@ConditionalOnProperty(name = "project.indexes.init-on-startup", havingValue = "true", matchIfMissing = true)
+public class IndexInitializer implements CommandLineRunner {
+
+    private final IndexService indexService;
+
+    public IndexInitializer(IndexService indexService) {
+        this.indexService = indexService;
+    }
+
+    @Override
+    public void run(String... args) {
+        this.indexService.ensureIndexes();
+    }
+}
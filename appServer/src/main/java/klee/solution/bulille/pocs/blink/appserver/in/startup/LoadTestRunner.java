@@ -0,0 +1,44 @@
+package klee.solution.bulille.pocs.blink.appserver.in.startup;
+
+import klee.solution.bulille.pocs.blink.appserver.config.LoadTestProperties;
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.middle.LoadTestService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the load test once the app listens, after the other startup tasks ; then stops the app if asked to.
+ */
+@Component
+@Order(10)
+@Profile(Profiles.LOAD_TEST)
+public class LoadTestRunner implements CommandLineRunner {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    private final LoadTestService loadTestService;
+    private final LoadTestProperties loadTestProperties;
+    private final ApplicationContext applicationContext;
+
+    public LoadTestRunner(LoadTestService loadTestService, LoadTestProperties loadTestProperties,
+                          ApplicationContext applicationContext) {
+        this.loadTestService = loadTestService;
+        this.loadTestProperties = loadTestProperties;
+        this.applicationContext = applicationContext;
+    }
+
+    @Override
+    public void run(String... args) throws Exception {
+        this.loadTestService.run();
+        if (this.loadTestProperties.exitWhenDone()) {
+            LOGGER.info("Load test done, stopping");
+            System.exit(SpringApplication.exit(this.applicationContext, () -> 0));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import klee.solution.bulille.pocs.blink.appserver.config.ActivityImportProperties;
+import klee.solution.bulille.pocs.blink.appserver.config.FileStorageProperties;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.inputs.ActivityInput;
+import klee.solution.bulille.pocs.blink.appserver.out.file.ActivityFileLine;
+import klee.solution.bulille.pocs.blink.appserver.out.file.ActivityFileReader;
+import klee.solution.bulille.pocs.blink.appserver.out.file.ActivityResultWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Imports an activities file : its lines are read in batches, each batch being validated and stored with
+ * {@link ActivityService#addActivities(List)}. The outcome of every line is written to a '.results.csv' file
+ * in the output folder.
+ */
+@Service
+public class ActivityImportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ActivityImportService.class);
+
+    private final ActivityFileReader activityFileReader;
+    private final ActivityService activityService;
+    private final Path outputPath;
+    private final int batchSize;
+
+    public ActivityImportService(ActivityFileReader activityFileReader,
+                                 ActivityService activityService,
+                                 FileStorageProperties fileStorageProperties,
+                                 ActivityImportProperties activityImportProperties) {
+        this.activityFileReader = activityFileReader;
+        this.activityService = activityService;
+        this.outputPath = fileStorageProperties.output();
+        this.batchSize = activityImportProperties.importBatchSize();
+        if (this.batchSize <= 0) {
+            throw new IllegalArgumentException("project.activities.import.batch-size must be positive, got " + this.batchSize);
+        }
+    }
+
+    @NonNull
+    public ActivityImportSummary importFile(@NonNull Path activityFile) throws IOException {
+        Files.createDirectories(this.outputPath);
+        Path resultFile = this.outputPath.resolve(activityFile.getFileName() + ".results.csv");
+        LOGGER.info("Importing activities from {} (batches of {} lines), results in {}", activityFile, this.batchSize, resultFile);
+        AtomicReference<ActivityImportSummary> summary = new AtomicReference<>(ActivityImportSummary.empty());
+
+        boolean read;
+        try (ActivityResultWriter results = ActivityResultWriter.create(resultFile)) {
+            read = this.activityFileReader.read(activityFile, this.batchSize,
+                    batch -> summary.set(this.importBatch(batch, results, summary.get())));
+        }
+        if (!read) {
+            LOGGER.error("Activities file {} was not imported", activityFile);
+            return summary.get();
+        }
+
+        ActivityImportSummary totals = summary.get();
+        LOGGER.info("Imported activities from {} : {} batches, {} accepted, {} rejected",
+                activityFile, totals.batches(), totals.accepted(), totals.rejected());
+        return totals;
+    }
+
+    private ActivityImportSummary importBatch(List<ActivityFileLine> batch, ActivityResultWriter results, ActivityImportSummary summary) {
+        List<ActivityInput> inputs = new ArrayList<>(batch.size());
+        for (ActivityFileLine line : batch) {
+            line.input().ifPresent(inputs::add);
+        }
+        List<ActivityLineResult> lineResults = inputs.isEmpty() ? List.of() : this.activityService.addActivities(inputs);
+
+        long accepted = 0;
+        int next = 0;
+        for (ActivityFileLine line : batch) {
+            if (line.error().isPresent()) {
+                results.rejected(line.lineNumber(), line.error().get());
+                continue;
+            }
+            ActivityLineResult result = lineResults.get(next++);
+            if (result.isAccepted()) {
+                accepted++;
+                results.accepted(line.lineNumber(), result.activity().orElseThrow().id.toHexString());
+            } else {
+                results.rejected(line.lineNumber(), result.rejection().orElseThrow());
+            }
+        }
+        long rejected = batch.size() - accepted;
+        LOGGER.info("Activities batch #{} : {} accepted, {} rejected", summary.batches() + 1, accepted, rejected);
+        return summary.add(accepted, rejected);
+    }
+}
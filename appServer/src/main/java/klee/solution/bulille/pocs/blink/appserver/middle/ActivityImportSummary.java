@@ -0,0 +1,17 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+/**
+ * Totals of an activities file import.
+ */
+public record ActivityImportSummary(int batches, long accepted, long rejected) {
+
+    public static ActivityImportSummary empty() {
+        return new ActivityImportSummary(0, 0, 0);
+    }
+
+    public ActivityImportSummary add(long accepted, long rejected) {
+        return new ActivityImportSummary(this.batches + 1,
+                this.accepted + accepted,
+                this.rejected + rejected);
+    }
+}
@@ -0,0 +1,27 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.Activity;
+
+import java.util.Optional;
+
+/**
+ * Outcome of one activity of a batch.
+ *
+ * @param index     0-based position of the activity in the batch
+ * @param activity  the stored activity, if accepted
+ * @param rejection why the activity was rejected, if it was
+ */
+public record ActivityLineResult(int index, Optional<Activity> activity, Optional<String> rejection) {
+
+    public static ActivityLineResult accepted(int index, Activity activity) {
+        return new ActivityLineResult(index, Optional.of(activity), Optional.empty());
+    }
+
+    public static ActivityLineResult rejected(int index, String rejection) {
+        return new ActivityLineResult(index, Optional.empty(), Optional.of(rejection));
+    }
+
+    public boolean isAccepted() {
+        return this.activity.isPresent();
+    }
+}
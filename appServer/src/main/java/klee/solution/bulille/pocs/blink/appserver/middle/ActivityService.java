@@ -1,41 +1,221 @@
 package klee.solution.bulille.pocs.blink.appserver.middle;
 
 import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.inputs.ActivityInput;
+import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId;
 import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.Activity;
-import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.ActivityRepository;
-import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
-import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.CustomerRepository;
-import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Contract;
-import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.SoldPrestation;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.ActivityInsertException;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.ActivityStorage;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger.ContractLedger;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger.ContractLedgerStorage;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger.LedgerReservation;
 import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.Prestation;
-import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.PrestationRepository;
-// import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId; // Not directly used here as customerId is String
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional; 
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-// import java.util.Optional; // Not directly used here
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ActivityService {
 
-    private final ActivityRepository activityRepository;
-    private final CustomerRepository customerRepository; 
-    private final PrestationRepository prestationRepository; 
+    private static final Logger LOGGER = LoggerFactory.getLogger(ActivityService.class);
 
-    public ActivityService(ActivityRepository activityRepository,
-                           CustomerRepository customerRepository,
-                           PrestationRepository prestationRepository) {
-        this.activityRepository = activityRepository;
-        this.customerRepository = customerRepository;
-        this.prestationRepository = prestationRepository;
+    private final ActivityStorage activityStorage;
+    private final ContractCache contractCache;
+    private final PrestationCatalogue prestationCatalogue;
+    private final ContractLedgerStorage contractLedgerStorage;
+
+    private final Counter acceptedActivities;
+    private final Counter invalidActivities;
+    private final Counter quotaRejections;
+    private final Counter concurrentRejections;
+
+    public ActivityService(ActivityStorage activityStorage,
+                           ContractCache contractCache,
+                           PrestationCatalogue prestationCatalogue,
+                           ContractLedgerStorage contractLedgerStorage,
+                           MeterRegistry meterRegistry) {
+        this.activityStorage = activityStorage;
+        this.contractCache = contractCache;
+        this.prestationCatalogue = prestationCatalogue;
+        this.contractLedgerStorage = contractLedgerStorage;
+        this.acceptedActivities = Counter.builder("activities.accepted")
+            .description("Activities stored, from the API or the input files")
+            .register(meterRegistry);
+        this.invalidActivities = rejections(meterRegistry, "invalid");
+        this.quotaRejections = rejections(meterRegistry, "quota");
+        this.concurrentRejections = rejections(meterRegistry, "concurrent");
     }
 
-    @Transactional 
+    // No @Transactional here : the quota is enforced by a single conditional update on the ledger,
+    // which does not need a replica-set transaction to be race-free.
     public Activity addActivity(ActivityInput activityInput) {
+        ActivityLineResult result = this.addActivities(List.of(activityInput)).get(0);
+        return result.activity()
+            .orElseThrow(() -> new IllegalArgumentException(result.rejection().orElseThrow()));
+    }
+
+    /**
+     * Validates and stores a batch of activities ; each activity is accepted or rejected on its own, with the same
+     * rules as {@link #addActivity(ActivityInput)}.
+     * Contracts and prestations come from the {@link ContractCache} and the {@link PrestationCatalogue}, the units are
+     * reserved in one bulk write and the accepted activities are inserted in one insertMany.
+     *
+     * @return the outcome of each activity, in the order of the input
+     */
+    @NonNull
+    public List<ActivityLineResult> addActivities(@NonNull List<ActivityInput> activityInputs) {
+        ActivityLineResult[] results = new ActivityLineResult[activityInputs.size()];
+
+        Map<CustomerId, Map<String, ContractSnapshot>> contracts = this.contractCache.findAll(activityInputs.stream()
+            .filter(input -> input != null && input.customerId != null && ObjectId.isValid(input.customerId))
+            .collect(Collectors.groupingBy(input -> customerIdOf(input.customerId),
+                Collectors.filtering(input -> input.contractId != null, Collectors.mapping(input -> input.contractId, Collectors.toSet())))));
+        Map<String, Prestation> prestations = this.prestationCatalogue.findAll(activityInputs.stream()
+            .filter(Objects::nonNull)
+            .map(input -> input.salesSystemId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet()));
+
+        // valid activities, grouped by the ledger entry they consume
+        Map<String, List<Candidate>> candidatesByLedger = new LinkedHashMap<>();
+        for (int index = 0; index < activityInputs.size(); index++) {
+            try {
+                Candidate candidate = resolve(index, activityInputs.get(index), contracts, prestations);
+                candidatesByLedger.computeIfAbsent(candidate.ledgerId(), ledgerId -> new ArrayList<>()).add(candidate);
+            } catch (IllegalArgumentException e) {
+                results[index] = ActivityLineResult.rejected(index, e.getMessage());
+                this.invalidActivities.increment();
+            }
+        }
+
+        List<Candidate> reservedCandidates = new ArrayList<>();
+        List<LedgerReservation> reservations = this.reserve(new ArrayList<>(candidatesByLedger.values()), reservedCandidates, results);
+
+        List<Activity> savedActivities = List.of();
+        if (!reservedCandidates.isEmpty()) {
+            try {
+                savedActivities = this.activityStorage.insertAll(reservedCandidates.stream().map(Candidate::toActivity).toList());
+            } catch (ActivityInsertException e) {
+                // only the first activities were stored : give the units of the others back
+                this.contractLedgerStorage.releaseAll(reservationsOf(reservedCandidates.subList(e.insertedCount(), reservedCandidates.size())));
+                throw e;
+            } catch (RuntimeException e) {
+                // the activities were not stored : give the reserved units back
+                this.contractLedgerStorage.releaseAll(reservations);
+                throw e;
+            }
+        }
+        for (int i = 0; i < savedActivities.size(); i++) {
+            int index = reservedCandidates.get(i).index();
+            results[index] = ActivityLineResult.accepted(index, savedActivities.get(i));
+        }
+        this.acceptedActivities.increment(savedActivities.size());
+
+        if (activityInputs.size() > 1) {
+            LOGGER.info("Added {} activities out of {}", savedActivities.size(), activityInputs.size());
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Reserves the units of the candidates on the ledger. Each group is first reserved as a whole (one round trip for
+     * all groups) ; the groups that do not fit are then checked activity by activity against the ledger, as if the
+     * activities had been posted one by one, and what still fits is reserved again.
+     *
+     * @return the reservations made ; the candidates they cover are added to reservedCandidates,
+     * the others are rejected in results
+     */
+    private List<LedgerReservation> reserve(List<List<Candidate>> groups,
+                                            List<Candidate> reservedCandidates,
+                                            ActivityLineResult[] results) {
+        List<LedgerReservation> reservations = new ArrayList<>();
+        List<List<Candidate>> refusedGroups = new ArrayList<>();
+        List<Boolean> reserved = this.contractLedgerStorage.reserveAll(groups.stream().map(ActivityService::reservationOf).toList());
+        for (int i = 0; i < groups.size(); i++) {
+            if (reserved.get(i)) {
+                reservedCandidates.addAll(groups.get(i));
+                reservations.add(reservationOf(groups.get(i)));
+            } else {
+                refusedGroups.add(groups.get(i));
+            }
+        }
+        if (refusedGroups.isEmpty()) {
+            return reservations;
+        }
+
+        Map<String, ContractLedger> ledgers = this.contractLedgerStorage.findAll(
+            refusedGroups.stream().map(group -> group.get(0).ledgerId()).toList());
+        List<List<Candidate>> fittingGroups = new ArrayList<>();
+        for (List<Candidate> group : refusedGroups) {
+            ContractLedger ledger = ledgers.get(group.get(0).ledgerId());
+            double totalUnitsConsumedSoFar = ledger == null ? 0.0 : ledger.unitsConsumed;
+            List<Candidate> fitting = new ArrayList<>();
+            for (Candidate candidate : group) {
+                if (totalUnitsConsumedSoFar + candidate.input().unitsConsumed > candidate.soldUnits()) {
+                    results[candidate.index()] = ActivityLineResult.rejected(candidate.index(),
+                        "Total units consumed (" + (totalUnitsConsumedSoFar + candidate.input().unitsConsumed) +
+                        ") would exceed contracted units (" + candidate.soldUnits() +
+                        ") for prestation " + candidate.input().salesSystemId + " in contract " + candidate.contract().contractId());
+                    this.quotaRejections.increment();
+                } else {
+                    totalUnitsConsumedSoFar += candidate.input().unitsConsumed;
+                    fitting.add(candidate);
+                }
+            }
+            if (!fitting.isEmpty()) {
+                fittingGroups.add(fitting);
+            }
+        }
+
+        List<Boolean> retried = this.contractLedgerStorage.reserveAll(fittingGroups.stream().map(ActivityService::reservationOf).toList());
+        for (int i = 0; i < fittingGroups.size(); i++) {
+            List<Candidate> group = fittingGroups.get(i);
+            if (retried.get(i)) {
+                reservedCandidates.addAll(group);
+                reservations.add(reservationOf(group));
+            } else {
+                // the ledger moved between the read and the second reservation
+                for (Candidate candidate : group) {
+                    results[candidate.index()] = ActivityLineResult.rejected(candidate.index(),
+                        "Units of prestation " + candidate.input().salesSystemId + " in contract " + candidate.contract().contractId() +
+                        " were consumed concurrently, please retry.");
+                    this.concurrentRejections.increment();
+                }
+            }
+        }
+        return reservations;
+    }
+
+    /**
+     * Checks one activity against its customer, contract and prestation.
+     *
+     * @throws IllegalArgumentException if the activity is not valid
+     */
+    private static Candidate resolve(int index,
+                                     ActivityInput activityInput,
+                                     Map<CustomerId, Map<String, ContractSnapshot>> contracts,
+                                     Map<String, Prestation> prestations) {
+        if (activityInput == null || activityInput.customerId == null || activityInput.contractId == null ||
+            activityInput.salesSystemId == null) {
+            throw new IllegalArgumentException("Missing required fields in activity input.");
+        }
         if (activityInput.unitsConsumed <= 0) {
             throw new IllegalArgumentException("Units consumed must be positive.");
         }
@@ -46,59 +226,147 @@ public class ActivityService {
             throw new IllegalArgumentException("Activity date cannot be in the future.");
         }
 
-        ObjectId customerOid = new ObjectId(activityInput.customerId);
-        Customer customer = customerRepository.findById(customerOid)
-            .orElseThrow(() -> new IllegalArgumentException("Customer not found with ID: " + activityInput.customerId));
-
-        Contract currentContract = customer.contracts.stream()
-            .filter(c -> c.id.equals(activityInput.contractId))
-            .findFirst()
-            .orElseThrow(() -> new IllegalArgumentException("Contract not found with ID: " + activityInput.contractId + " for customer " + activityInput.customerId));
+        Map<String, ContractSnapshot> customerContracts = ObjectId.isValid(activityInput.customerId) ? contracts.get(customerIdOf(activityInput.customerId)) : null;
+        if (customerContracts == null) {
+            throw new IllegalArgumentException("Customer not found with ID: " + activityInput.customerId);
+        }
 
-        if (currentContract.start.isAfter(activityInput.doneOn) || 
-            (currentContract.end != null && currentContract.end.isBefore(activityInput.doneOn))) {
-            throw new IllegalArgumentException("Activity date " + activityInput.doneOn + " is not within the contract period (" + currentContract.start + " - " + (currentContract.end == null ? "Permanent" : currentContract.end) + ").");
+        ContractSnapshot currentContract = customerContracts.get(activityInput.contractId);
+        if (currentContract == null) {
+            throw new IllegalArgumentException("Contract not found with ID: " + activityInput.contractId + " for customer " + activityInput.customerId);
         }
 
-        SoldPrestation soldPrestationInContract = currentContract.soldPrestations.stream()
-            .filter(sp -> sp.salesSystemId.equals(activityInput.salesSystemId))
-            .findFirst()
-            .orElseThrow(() -> new IllegalArgumentException("Prestation with salesSystemId: " + activityInput.salesSystemId + " not found in contract " + currentContract.id));
+        if (currentContract.start().isAfter(activityInput.doneOn) ||
+            (currentContract.end() != null && currentContract.end().isBefore(activityInput.doneOn))) {
+            throw new IllegalArgumentException("Activity date " + activityInput.doneOn + " is not within the contract period (" + currentContract.start() + " - " + (currentContract.end() == null ? "Permanent" : currentContract.end()) + ").");
+        }
 
-        // The repository method uses String for contractId.
-        List<Activity> existingActivitiesForPrestationInContract = activityRepository.findByContractIdAndSalesSystemId(currentContract.id, activityInput.salesSystemId);
-        
-        double totalUnitsConsumedSoFar = existingActivitiesForPrestationInContract.stream()
-            .mapToDouble(a -> a.unitsConsumed)
-            .sum();
+        Long soldUnits = currentContract.soldUnits().get(activityInput.salesSystemId);
+        if (soldUnits == null) {
+            throw new IllegalArgumentException("Prestation with salesSystemId: " + activityInput.salesSystemId + " not found in contract " + currentContract.contractId());
+        }
 
-        if (totalUnitsConsumedSoFar + activityInput.unitsConsumed > soldPrestationInContract.units) {
-            throw new IllegalArgumentException("Total units consumed (" + (totalUnitsConsumedSoFar + activityInput.unitsConsumed) + 
-                                               ") would exceed contracted units (" + soldPrestationInContract.units + 
-                                               ") for prestation " + activityInput.salesSystemId + " in contract " + currentContract.id);
+        Prestation prestation = prestations.get(activityInput.salesSystemId);
+        if (prestation == null) {
+            throw new IllegalArgumentException("Prestation details not found for salesSystemId: " + activityInput.salesSystemId);
         }
 
-        Prestation prestation = prestationRepository.findById(activityInput.salesSystemId)
-            .orElseThrow(() -> new IllegalArgumentException("Prestation details not found for salesSystemId: " + activityInput.salesSystemId));
+        return new Candidate(index, activityInput, currentContract, soldUnits, prestation);
+    }
 
-        Activity newActivity = new Activity();
-        newActivity.customerId = customerOid;
-        newActivity.contractId = currentContract.id; // Activity.contractId is String now
-        newActivity.salesSystemId = activityInput.salesSystemId;
-        newActivity.name = prestation.name; 
-        newActivity.doneOn = activityInput.doneOn;
-        newActivity.unitsConsumed = activityInput.unitsConsumed;
+    /**
+     * @return the reservations of the given candidates, one per ledger entry
+     */
+    private static List<LedgerReservation> reservationsOf(List<Candidate> candidates) {
+        return candidates.stream()
+            .collect(Collectors.groupingBy(Candidate::ledgerId, LinkedHashMap::new, Collectors.toList()))
+            .values().stream()
+            .map(ActivityService::reservationOf)
+            .toList();
+    }
 
-        return activityRepository.save(newActivity);
+    private static LedgerReservation reservationOf(List<Candidate> group) {
+        Candidate first = group.get(0);
+        return new LedgerReservation(first.contract().contractId(), first.input().salesSystemId,
+            group.stream().mapToDouble(candidate -> candidate.input().unitsConsumed).sum(),
+            group.stream().mapToDouble(Candidate::billedAmount).sum(),
+            first.soldUnits());
     }
 
-    public List<Activity> getActivitiesForContract(String contractId) {
+    private static CustomerId customerIdOf(String customerId) {
+        // normalized, to match the keys of ContractCache.findAll
+        return new CustomerId(new ObjectId(customerId).toHexString());
+    }
+
+    /**
+     * Every activity of a contract, sorted by date, in one list ; from and to are inclusive.
+     * Prefer {@link #getActivitiesForContract(String, Optional, Optional, Optional, int)} for long histories.
+     */
+    @NonNull
+    public List<Activity> getAllActivitiesForContract(String contractId, Optional<LocalDate> from, Optional<LocalDate> to) {
+        checkListing(contractId, from, to);
+        try (Stream<Activity> activities = this.activityStorage.streamByContract(contractId, from, to)) {
+            return activities.toList();
+        }
+    }
+
+    /**
+     * One page of the activities of a contract, sorted by date ; from and to are inclusive.
+     *
+     * @param cursor the nextCursor of the previous page, empty for the first page
+     */
+    @NonNull
+    public CursorPage<Activity> getActivitiesForContract(String contractId, Optional<LocalDate> from, Optional<LocalDate> to,
+                                                         Optional<String> cursor, int size) {
+        checkListing(contractId, from, to);
+        return this.activityStorage.findByContract(contractId, from, to, cursor, size);
+    }
+
+    /**
+     * Hands over every activity of a contract, sorted by date, as they are read from the database : memory use does
+     * not depend on the number of activities. from and to are inclusive.
+     */
+    public void exportActivitiesForContract(String contractId, Optional<LocalDate> from, Optional<LocalDate> to,
+                                            Consumer<Activity> consumer) {
+        checkListing(contractId, from, to);
+        LOGGER.info("Exporting activities of contract {} ({} - {})", contractId, from.orElse(null), to.orElse(null));
+        long count = 0;
+        try (Stream<Activity> activities = this.activityStorage.streamByContract(contractId, from, to)) {
+            Iterator<Activity> iterator = activities.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                count++;
+            }
+        }
+        LOGGER.info("Exported {} activities of contract {}", count, contractId);
+    }
+
+    static void checkListing(String contractId, Optional<LocalDate> from, Optional<LocalDate> to) {
         if (contractId == null || contractId.trim().isEmpty()) {
             throw new IllegalArgumentException("Contract ID cannot be null or empty.");
         }
-        // Optional: Check if the contract actually exists via CustomerRepository 
-        // to return a more specific "contract not found" or just return an empty list if no activities.
-        // For now, just query activities.
-        return activityRepository.findByContractId(contractId);
+        if (from.isPresent() && to.isPresent() && from.get().isAfter(to.get())) {
+            throw new IllegalArgumentException("'from' (" + from.get() + ") cannot be after 'to' (" + to.get() + ").");
+        }
+    }
+
+    /**
+     * @param reason invalid (customer, contract, prestation or date), quota (units sold exceeded) or concurrent (units
+     *               consumed by another request meanwhile)
+     */
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("activities.rejected")
+            .description("Activities refused, from the API or the input files")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    /**
+     * An activity that passed every check but the quota one.
+     */
+    private record Candidate(int index,
+                             ActivityInput input,
+                             ContractSnapshot contract,
+                             long soldUnits,
+                             Prestation prestation) {
+
+        String ledgerId() {
+            return ContractLedger.idOf(this.contract.contractId(), this.input.salesSystemId);
+        }
+
+        double billedAmount() {
+            return this.input.unitsConsumed * this.prestation.unitPrice;
+        }
+
+        Activity toActivity() {
+            Activity newActivity = new Activity();
+            newActivity.customerId = this.contract.customerId().toOID();
+            newActivity.contractId = this.contract.contractId(); // Activity.contractId is String now
+            newActivity.salesSystemId = this.input.salesSystemId;
+            newActivity.name = this.prestation.name;
+            newActivity.doneOn = this.input.doneOn;
+            newActivity.unitsConsumed = this.input.unitsConsumed;
+            return newActivity;
+        }
     }
 }
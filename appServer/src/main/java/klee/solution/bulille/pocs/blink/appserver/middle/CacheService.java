@@ -0,0 +1,28 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Reports on the application caches : the {@link PrestationCatalogue} and the {@link ContractCache}.
+ */
+@Service
+public class CacheService {
+
+    private final PrestationCatalogue prestationCatalogue;
+    private final ContractCache contractCache;
+
+    public CacheService(PrestationCatalogue prestationCatalogue, ContractCache contractCache) {
+        this.prestationCatalogue = prestationCatalogue;
+        this.contractCache = contractCache;
+    }
+
+    @NonNull
+    public List<CacheUsage> usages() {
+        return List.of(
+                new CacheUsage("prestations", this.prestationCatalogue.size(), this.prestationCatalogue.stats()),
+                new CacheUsage("contracts", this.contractCache.size(), this.contractCache.stats()));
+    }
+}
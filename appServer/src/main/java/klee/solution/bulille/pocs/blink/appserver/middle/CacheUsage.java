@@ -0,0 +1,9 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * Size and statistics of one of the application caches.
+ */
+public record CacheUsage(String name, long size, CacheStats stats) {
+}
@@ -0,0 +1,146 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import klee.solution.bulille.pocs.blink.appserver.config.CacheProperties;
+import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Contract;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.CustomerStorage;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Size-bounded cache of the contracts of each customer, as {@link ContractSnapshot}s keyed by contract id.
+ * <p>
+ * The missing customers are loaded with a single query. Customers that do not exist are not cached.
+ * A cached customer that lacks one of the requested contracts (e.g. added by another instance) is reloaded once : the
+ * contracts still missing are then remembered as absent, until the entry is invalidated or expires, so that looking
+ * for an unknown contract again does not reach the database.
+ * Entries expire after a time-to-live, which bounds how long a change made by another instance can go unnoticed.
+ * Changes made by this instance MUST be followed by {@link #invalidate(CustomerId)}.
+ * A load that started before an invalidation is not cached : writers bump a generation under a write lock, loaders
+ * only store their result if the generation did not change, under the read lock.
+ * Hits, misses and evictions are published as the cache.* metrics of the 'contracts' cache.
+ */
+@Component
+public class ContractCache {
+
+    private final CustomerStorage customerStorage;
+    private final Cache<CustomerId, CachedContracts> contracts;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final ReadWriteLock generationLock = new ReentrantReadWriteLock();
+
+    public ContractCache(CustomerStorage customerStorage, CacheProperties cacheProperties, MeterRegistry meterRegistry) {
+        this.customerStorage = customerStorage;
+        this.contracts = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.contractsMaxSize())
+                .expireAfterWrite(cacheProperties.contractsTimeToLive())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.contracts, "contracts");
+    }
+
+    /**
+     * @param contractIds the ids of the contracts looked for, keyed by customer id
+     * @return the contracts of the existing customers among the given ids, keyed by customer id then contract id
+     */
+    @NonNull
+    public Map<CustomerId, Map<String, ContractSnapshot>> findAll(@NonNull Map<CustomerId, ? extends Collection<String>> contractIds) {
+        Map<CustomerId, CachedContracts> cached = this.contracts.getAllPresent(contractIds.keySet());
+        Map<CustomerId, Map<String, ContractSnapshot>> found = new HashMap<>();
+        Map<CustomerId, Set<String>> knownAbsent = new HashMap<>();
+        cached.forEach((customerId, entry) -> {
+            if (entry.knows(contractIds.get(customerId))) {
+                found.put(customerId, entry.contracts());
+            } else {
+                // reloaded below, along with the absent contracts known so far
+                knownAbsent.put(customerId, entry.absent());
+            }
+        });
+        Set<CustomerId> missing = new HashSet<>(contractIds.keySet());
+        missing.removeAll(found.keySet());
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        long loadedAt = this.generation.get();
+        Map<CustomerId, CachedContracts> loaded = new HashMap<>();
+        this.customerStorage.findContracts(missing).forEach((customerId, customer) -> {
+            Map<String, ContractSnapshot> snapshots = new LinkedHashMap<>();
+            if (customer.contracts != null) {
+                for (Contract contract : customer.contracts) {
+                    snapshots.putIfAbsent(contract.id, ContractSnapshot.of(customerId, contract));
+                }
+            }
+            Set<String> absent = new HashSet<>(knownAbsent.getOrDefault(customerId, Set.of()));
+            absent.addAll(contractIds.get(customerId));
+            absent.removeAll(snapshots.keySet());
+            loaded.put(customerId, new CachedContracts(Collections.unmodifiableMap(snapshots), Set.copyOf(absent)));
+        });
+
+        this.generationLock.readLock().lock();
+        try {
+            if (this.generation.get() == loadedAt) {
+                this.contracts.putAll(loaded);
+            }
+        } finally {
+            this.generationLock.readLock().unlock();
+        }
+        // the customers that no longer exist must not be served from the cache either
+        this.contracts.invalidateAll(knownAbsent.keySet().stream().filter(customerId -> !loaded.containsKey(customerId)).toList());
+        loaded.forEach((customerId, entry) -> found.put(customerId, entry.contracts()));
+        return found;
+    }
+
+    /**
+     * To be called once the contracts of the customer were written.
+     */
+    public void invalidate(@NonNull CustomerId customerId) {
+        this.generationLock.writeLock().lock();
+        try {
+            this.generation.incrementAndGet();
+            // the cache is keyed by normalized ids (see ActivityService)
+            this.contracts.invalidate(new CustomerId(customerId.toOID().toHexString()));
+        } finally {
+            this.generationLock.writeLock().unlock();
+        }
+    }
+
+    @NonNull
+    public CacheStats stats() {
+        return this.contracts.stats();
+    }
+
+    public long size() {
+        return this.contracts.estimatedSize();
+    }
+
+    /**
+     * @param contracts the contracts of the customer, by contract id
+     * @param absent    ids of contracts looked for but not held by the customer when it was loaded
+     */
+    private record CachedContracts(Map<String, ContractSnapshot> contracts, Set<String> absent) {
+
+        /**
+         * @return whether every given contract is either held by the customer or known to be absent
+         */
+        boolean knows(Collection<String> contractIds) {
+            return contractIds.stream().allMatch(contractId -> this.contracts.containsKey(contractId) || this.absent.contains(contractId));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger.ContractLedgerStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ContractLedgerService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContractLedgerService.class);
+
+    private final ContractLedgerStorage contractLedgerStorage;
+
+    public ContractLedgerService(ContractLedgerStorage contractLedgerStorage) {
+        this.contractLedgerStorage = contractLedgerStorage;
+    }
+
+    /**
+     * Recomputes every ledger entry from the activities, fixing any drift.
+     * Activities added meanwhile may be missed : see ContractLedgerStorage.rebuildFromActivities.
+     *
+     * @return the number of ledger entries after the rebuild
+     */
+    public long rebuild() {
+        LOGGER.info("Contract ledger rebuild requested");
+        return this.contractLedgerStorage.rebuildFromActivities();
+    }
+
+    /**
+     * Builds the ledger from the activities if it was never built (e.g. first start after an upgrade).
+     */
+    public void rebuildIfMissing() {
+        if (this.contractLedgerStorage.exists()) {
+            LOGGER.info("Contract ledger found, no rebuild needed");
+            return;
+        }
+        LOGGER.warn("No contract ledger found, building it from the activities");
+        this.contractLedgerStorage.rebuildFromActivities();
+    }
+}
@@ -0,0 +1,90 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs.ContractBalanceOutput;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs.ContractOutput;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs.PrestationBalanceOutput;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Contract;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.CustomerStorage;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.SoldPrestation;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger.ContractLedger;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger.ContractLedgerStorage;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reads the contracts on their own, without going through their customer.
+ * Both lookups are indexed : the contract ids of the customers, and the contract id of the ledger entries.
+ */
+@Service
+public class ContractService {
+
+    private final CustomerStorage customerStorage;
+    private final ContractLedgerStorage contractLedgerStorage;
+
+    public ContractService(CustomerStorage customerStorage, ContractLedgerStorage contractLedgerStorage) {
+        this.customerStorage = customerStorage;
+        this.contractLedgerStorage = contractLedgerStorage;
+    }
+
+    @NonNull
+    public Optional<ContractOutput> find(@NonNull String contractId) {
+        return this.findContract(contractId)
+                .map(found -> ContractOutput.from(found.customer().id.toHexString(), found.contract()));
+    }
+
+    /**
+     * @return for each prestation of the contract, the units and amounts sold, consumed and remaining ; empty if the
+     * contract does not exist
+     */
+    @NonNull
+    public Optional<ContractBalanceOutput> balance(@NonNull String contractId) {
+        Optional<FoundContract> found = this.findContract(contractId);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        Contract contract = found.get().contract();
+
+        Map<String, ContractLedger> ledgers = new HashMap<>();
+        this.contractLedgerStorage.findByContract(contractId)
+                .forEach(ledger -> ledgers.put(ledger.salesSystemId, ledger));
+
+        Map<String, SoldPrestation> sold = new LinkedHashMap<>();
+        if (contract.soldPrestations != null) {
+            // the first one wins, as when activities are checked (see ContractSnapshot)
+            contract.soldPrestations.forEach(soldPrestation -> sold.putIfAbsent(soldPrestation.salesSystemId, soldPrestation));
+        }
+
+        List<PrestationBalanceOutput> prestations = new ArrayList<>();
+        sold.forEach((salesSystemId, soldPrestation) -> {
+            Optional<ContractLedger> ledger = Optional.ofNullable(ledgers.remove(salesSystemId));
+            prestations.add(PrestationBalanceOutput.of(salesSystemId,
+                    soldPrestation.units, soldPrestation.totalBilledAmountForUnits,
+                    ledger.map(entry -> entry.unitsConsumed).orElse(0.0),
+                    ledger.map(entry -> entry.billedAmount).orElse(0.0)));
+        });
+        // consumed but not sold : only possible if the contract was edited outside the app
+        ledgers.values().forEach(ledger -> prestations.add(PrestationBalanceOutput.of(ledger.salesSystemId,
+                0, 0, ledger.unitsConsumed, ledger.billedAmount)));
+
+        return Optional.of(new ContractBalanceOutput(contractId, found.get().customer().id.toHexString(), prestations));
+    }
+
+    private Optional<FoundContract> findContract(String contractId) {
+        return this.customerStorage.findByContract(contractId)
+                .flatMap(customer -> customer.contracts.stream()
+                        .filter(contract -> contractId.equals(contract.id))
+                        .findFirst()
+                        .map(contract -> new FoundContract(customer, contract)));
+    }
+
+    private record FoundContract(Customer customer, Contract contract) {
+    }
+}
@@ -0,0 +1,34 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Contract;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.SoldPrestation;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable copy of what the activity checks need from a contract.
+ *
+ * @param end       null for an open-ended contract
+ * @param soldUnits units sold in the contract, keyed by salesSystemId
+ */
+public record ContractSnapshot(CustomerId customerId,
+                               String contractId,
+                               LocalDate start,
+                               LocalDate end,
+                               Map<String, Long> soldUnits) {
+
+    public static ContractSnapshot of(CustomerId customerId, Contract contract) {
+        Map<String, Long> soldUnits = new LinkedHashMap<>();
+        if (contract.soldPrestations != null) {
+            for (SoldPrestation soldPrestation : contract.soldPrestations) {
+                // the first one wins, as when the contract is searched line by line
+                soldUnits.putIfAbsent(soldPrestation.salesSystemId, soldPrestation.units);
+            }
+        }
+        return new ContractSnapshot(customerId, contract.id, contract.start, contract.end, Collections.unmodifiableMap(soldUnits));
+    }
+}
@@ -0,0 +1,18 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset pagination.
+ *
+ * @param items      the items of the page, at most the requested size
+ * @param nextCursor to pass as 'cursor' to get the next page ; null on the last page
+ * @param total      number of items of all pages ; null unless requested, as it costs a count on every page
+ */
+public record CursorPage<T>(List<T> items, String nextCursor, Long total) {
+
+    public <R> CursorPage<R> map(Function<T, R> mapper) {
+        return new CursorPage<>(this.items.stream().map(mapper).toList(), this.nextCursor, this.total);
+    }
+}
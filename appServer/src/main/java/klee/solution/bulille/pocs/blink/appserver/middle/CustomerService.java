@@ -1,10 +1,12 @@
 package klee.solution.bulille.pocs.blink.appserver.middle;
 
 import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs.CustomerOutput;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs.CustomerSummaryOutput;
 import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId;
 import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
 import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.CustomerStorage;
-import org.springframework.data.domain.PageImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
 import java.util.Optional;
@@ -16,7 +18,6 @@ import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.inputs.ContractIn
 import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Contract;
 import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.ContractType;
 import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.SoldPrestation;
-import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.PrestationRepository;
 // Ensure CustomerId is already imported or import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId;
 import java.time.LocalDate;
 import java.util.stream.Collectors;
@@ -25,31 +26,59 @@ import java.util.stream.Collectors;
 @Component
 public class CustomerService {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomerService.class);
+
     private final CustomerStorage customerStorage;
-    private final PrestationRepository prestationRepository;
+    private final PrestationCatalogue prestationCatalogue;
+    private final ContractCache contractCache;
 
-    public CustomerService(CustomerStorage customerStorage, PrestationRepository prestationRepository) {
+    public CustomerService(CustomerStorage customerStorage, PrestationCatalogue prestationCatalogue, ContractCache contractCache) {
         this.customerStorage = customerStorage;
-        this.prestationRepository = prestationRepository;
+        this.prestationCatalogue = prestationCatalogue;
+        this.contractCache = contractCache;
     }
 
     public Optional<Customer> find(CustomerId customerId) {
         return this.customerStorage.find(customerId);
     }
 
-    public Page<CustomerOutput> searchCustomers(String nameQuery, Pageable pageable) {
-        Page<Customer> entityPages ;
-        if (nameQuery == null || nameQuery.trim().isEmpty()) {
-            entityPages = customerStorage.findAll(pageable); // Or handle as an error/empty page
-        }else {
-            entityPages = customerStorage.findByFirstNameOrGivenNameContainingIgnoreCase(nameQuery, pageable);
-        }
-        return new PageImpl<>(
-                entityPages.getContent().stream().map(CustomerOutput::from).toList(),
-                pageable,
-                entityPages.getTotalElements()
-        );
+    /**
+     * Offset-paginated search ; all customers if there is no name query.
+     */
+    public Page<CustomerSummaryOutput> searchCustomerSummaries(String nameQuery, NameSearchMode mode, Pageable pageable) {
+        return customerStorage.searchByName(nameQuery, mode, pageable, CustomerView.SUMMARY).map(CustomerSummaryOutput::from);
+    }
+
+    /**
+     * Same as {@link #searchCustomerSummaries(String, NameSearchMode, Pageable)}, with the whole customers.
+     */
+    public Page<CustomerOutput> searchCustomers(String nameQuery, NameSearchMode mode, Pageable pageable) {
+        return customerStorage.searchByName(nameQuery, mode, pageable, CustomerView.FULL).map(CustomerOutput::from);
+    }
+
+    /**
+     * Keyset-paginated search ; all customers if there is no name query.
+     *
+     * @param cursor the nextCursor of the previous page, empty for the first page
+     */
+    public CursorPage<CustomerSummaryOutput> searchCustomerSummaries(String nameQuery, NameSearchMode mode, Optional<String> cursor, int size, boolean includeTotal) {
+        return customerStorage.searchByName(nameQuery, mode, cursor, size, includeTotal, CustomerView.SUMMARY).map(CustomerSummaryOutput::from);
+    }
 
+    /**
+     * Same as {@link #searchCustomerSummaries(String, NameSearchMode, Optional, int, boolean)}, with the whole customers.
+     */
+    public CursorPage<CustomerOutput> searchCustomers(String nameQuery, NameSearchMode mode, Optional<String> cursor, int size, boolean includeTotal) {
+        return customerStorage.searchByName(nameQuery, mode, cursor, size, includeTotal, CustomerView.FULL).map(CustomerOutput::from);
+    }
+
+    /**
+     * Sets the name search keys of the customers created before name search was indexed, or indexed with older rules.
+     */
+    public void indexMissingNames() {
+        LOGGER.info("Indexing the names of the customers saved without up-to-date search keys");
+        long updated = customerStorage.indexMissingNames();
+        LOGGER.info("Names of {} customers indexed", updated);
     }
 
     public Customer createCustomer(CustomerInput customerInput) {
@@ -68,9 +97,6 @@ public class CustomerService {
     }
 
     public Customer addContract(CustomerId customerId, ContractInput contractInput) {
-        Customer customer = customerStorage.find(customerId)
-                .orElseThrow(() -> new IllegalArgumentException("Customer not found with ID: " + customerId.id()));
-
         // Validate ContractInput
         if (contractInput.type == ContractType.FREE_TRIAL) {
             if (contractInput.endDate == null) {
@@ -96,14 +122,6 @@ public class CustomerService {
         }
 
 
-        // Validate no overlapping contracts
-        for (Contract existingContract : customer.contracts) {
-            boolean overlaps = overlaps(contractInput, existingContract);
-            if (overlaps) {
-                throw new IllegalArgumentException("New contract dates overlap with an existing contract.");
-            }
-        }
-
         Contract newContract = new Contract(); // ID is auto-generated in Contract class
         newContract.type = contractInput.type;
         newContract.start = contractInput.startDate;
@@ -115,7 +133,7 @@ public class CustomerService {
 
         newContract.soldPrestations = contractInput.soldPrestations.stream().map(spInput -> {
             // Validate Prestation exists
-            prestationRepository.findById(spInput.salesSystemId)
+            prestationCatalogue.find(spInput.salesSystemId)
                     .orElseThrow(() -> new IllegalArgumentException("Prestation not found with salesSystemId: " + spInput.salesSystemId));
 
             SoldPrestation soldPrestation = new SoldPrestation();
@@ -128,14 +146,30 @@ public class CustomerService {
             return soldPrestation;
         }).collect(Collectors.toList());
 
-        if (customer.contracts == null) { // Should have been initialized in createCustomer
-            customer.contracts = new ArrayList<>();
+        // the storage checks the overlaps and appends the contract in one atomic update
+        Optional<Customer> savedCustomer = customerStorage.pushContract(customerId, newContract);
+        contractCache.invalidate(customerId);
+        return savedCustomer.orElseThrow(() -> this.refusal(customerId, contractInput));
+    }
+
+    /**
+     * @return why the contract could not be added : the customer is missing, or one of its contracts overlaps it
+     */
+    private IllegalArgumentException refusal(CustomerId customerId, ContractInput contractInput) {
+        Customer customer = customerStorage.find(customerId)
+                .orElseThrow(() -> new IllegalArgumentException("Customer not found with ID: " + customerId.id()));
+        // Validate no overlapping contracts
+        for (Contract existingContract : customer.contracts) {
+            boolean overlaps = overlaps(contractInput, existingContract);
+            if (overlaps) {
+                return new IllegalArgumentException("New contract dates overlap with an existing contract.");
+            }
         }
-        customer.contracts.add(newContract);
-        return customerStorage.save(customer); // Save the updated customer object
+        // contracts are never removed : should not happen
+        return new IllegalArgumentException("Contract could not be added to customer " + customerId.id() + ", please retry.");
     }
 
-    private static boolean overlaps(ContractInput contractInput, Contract existingContract) {
+    static boolean overlaps(ContractInput contractInput, Contract existingContract) {
         if (contractInput.endDate == null && existingContract.end == null && contractInput.type == ContractType.PERMANENT && existingContract.type == ContractType.PERMANENT) {
             // Two permanent contracts without end dates always overlap if their start dates allow any period of concurrent existence.
             // This simple check assumes a customer can't have two open-ended permanent contracts.
@@ -0,0 +1,11 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+/**
+ * How much of the customers a listing loads.
+ */
+public enum CustomerView {
+    /** names, birth date, and the id, type and period of the contracts ; no sold prestation */
+    SUMMARY,
+    /** the whole document */
+    FULL
+}
@@ -0,0 +1,47 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import klee.solution.bulille.pocs.blink.appserver.config.IndexProperties;
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.IndexStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Creates the indexes declared on the documents, then checks that the hot queries do not scan whole collections.
+ */
+@Service
+@Profile(Profiles.NOT_IN_MEMORY)
+public class IndexService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(IndexService.class);
+
+    private final IndexStorage indexStorage;
+    private final boolean failOnCollectionScan;
+
+    public IndexService(IndexStorage indexStorage, IndexProperties indexProperties) {
+        this.indexStorage = indexStorage;
+        this.failOnCollectionScan = indexProperties.failOnCollectionScan();
+    }
+
+    /**
+     * @throws IllegalStateException if a hot query scans its whole collection and project.indexes.fail-on-collscan is set
+     */
+    public void ensureIndexes() {
+        LOGGER.info("Checking indexes");
+        int indexes = this.indexStorage.ensureDeclaredIndexes();
+
+        List<String> collectionScans = this.indexStorage.collectionScans();
+        if (collectionScans.isEmpty()) {
+            LOGGER.info("{} indexes declared, every hot query is served by an index", indexes);
+            return;
+        }
+        collectionScans.forEach(query -> LOGGER.warn("Hot query still scans its whole collection: {}", query));
+        if (this.failOnCollectionScan) {
+            throw new IllegalStateException(collectionScans.size() + " hot queries scan their whole collection, see the logs above");
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import klee.solution.bulille.pocs.blink.appserver.config.JobLeaseProperties;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.lease.JobLease;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.lease.JobLeaseStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Runs a job on a single instance of the app at a time, under a lease stored in the database.
+ * <p>
+ * A lease expires on its own if its holder crashed. A job whose lease may have expired meanwhile (long run, GC pause)
+ * MUST check it still holds it with {@link #isHeld(JobLease)} before its last write, e.g. moving a file.
+ */
+@Service
+public class JobLeaseService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobLeaseService.class);
+
+    /** job name of the hourly report */
+    public static final String HOURLY_REPORT = "hourly-report";
+    private static final String INPUT_FILE = "input-file:";
+
+    private final JobLeaseStorage jobLeaseStorage;
+    private final String owner;
+
+    public JobLeaseService(JobLeaseStorage jobLeaseStorage, JobLeaseProperties properties) {
+        this.jobLeaseStorage = jobLeaseStorage;
+        // pid@host
+        this.owner = properties.owner().isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : properties.owner();
+    }
+
+    /**
+     * Runs the task if the lease of the job could be taken, then releases it.
+     *
+     * @param atMost  time after which the lease expires if this instance crashed ; longer than the task
+     * @param atLeast time the lease is kept after it was taken, even if the task ended sooner
+     * @return false if another instance holds the lease : the task was not run
+     */
+    public boolean runExclusively(@NonNull String job, @NonNull Duration atMost, @NonNull Duration atLeast,
+                                  @NonNull Consumer<JobLease> task) {
+        Optional<JobLease> lease = this.jobLeaseStorage.acquire(job, this.owner, atMost);
+        if (lease.isEmpty()) {
+            LOGGER.info("{} is run by another instance, skipped", job);
+            return false;
+        }
+        try {
+            task.accept(lease.get());
+        } finally {
+            this.jobLeaseStorage.release(lease.get(), atLeast);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if this instance still holds the lease : no other instance took the job over
+     */
+    public boolean isHeld(@NonNull JobLease lease) {
+        return this.jobLeaseStorage.isHeld(lease);
+    }
+
+    /**
+     * @return the job name of the processing of an input file ; the input folder is shared by the instances
+     */
+    @NonNull
+    public static String inputFileJob(@NonNull String fileName) {
+        return INPUT_FILE + fileName;
+    }
+}
@@ -0,0 +1,75 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Thread-safe histogram of latencies in microseconds, of fixed size whatever the number of values.
+ * <p>
+ * Values below 128µs are counted exactly ; above, each power of two is split into 64 buckets, so a percentile is
+ * reported at most 1/64 (1.6%) below the actual value. The max is exact.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 64;
+    private static final int SUB_BUCKET_BITS = 6;
+    /** up to 2^50µs, i.e. way more than any timeout */
+    private static final int BUCKETS = SUB_BUCKETS * 45;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void record(long micros) {
+        long value = Math.max(0, micros);
+        this.counts.incrementAndGet(index(value));
+        this.max.accumulate(value);
+    }
+
+    public long count() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += this.counts.get(i);
+        }
+        return count;
+    }
+
+    public long max() {
+        return this.max.get();
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the lower bound of the bucket holding the value at this percentile, 0 if nothing was recorded
+     */
+    public long percentile(double percentile) {
+        long count = this.count();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts.get(i);
+            if (seen >= rank) {
+                return Math.min(lowerBound(i), this.max());
+            }
+        }
+        return this.max();
+    }
+
+    static int index(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return Math.min(BUCKETS - 1, SUB_BUCKETS * shift + (int) (value >> shift));
+    }
+
+    static long lowerBound(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        return (long) (index - SUB_BUCKETS * shift) << shift;
+    }
+}
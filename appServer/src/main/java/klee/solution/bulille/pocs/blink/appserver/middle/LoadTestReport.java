@@ -0,0 +1,27 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Outcome of a load test run ; latencies in microseconds.
+ *
+ * @param duration  measured time, warm-up excluded
+ * @param endpoints one line per endpoint called
+ */
+public record LoadTestReport(Duration duration, List<Endpoint> endpoints) {
+
+    /**
+     * @param throughput requests per second, errors included
+     */
+    public record Endpoint(String name, long requests, long errors, double throughput,
+                           long p50, long p90, long p99, long p999, long max) {
+
+        static Endpoint of(String name, LatencyHistogram latencies, long errors, Duration duration) {
+            long requests = latencies.count();
+            return new Endpoint(name, requests, errors, requests * 1000.0 / Math.max(1, duration.toMillis()),
+                    latencies.percentile(50), latencies.percentile(90), latencies.percentile(99),
+                    latencies.percentile(99.9), latencies.max());
+        }
+    }
+}
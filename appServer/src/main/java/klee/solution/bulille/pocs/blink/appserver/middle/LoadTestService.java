@@ -0,0 +1,247 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import klee.solution.bulille.pocs.blink.appserver.config.LoadTestProperties;
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.inputs.ActivityInput;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.inputs.ContractInput;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.inputs.CustomerInput;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.inputs.SoldPrestationInput;
+import klee.solution.bulille.pocs.blink.appserver.out.appserver.AppServerClient;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.ContractType;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.Prestation;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.PrestationStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Replays customer traffic on the app through HTTP, then reports the throughput and latencies of each endpoint.
+ * <p>
+ * Customers and their contracts are created through the API ; the prestations are written straight to the storage,
+ * as they are imported from files. Clients loop without pause (closed model) : throughput is what the app sustains
+ * with this concurrency. With the inmemory profile, the figures are those of the HTTP and service layers alone.
+ */
+@Service
+@Profile(Profiles.LOAD_TEST)
+public class LoadTestService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadTestService.class);
+
+    private static final String PRESTATION_PREFIX = "LOADTEST-";
+    private static final String[] FIRST_NAMES = {"Jean", "Marie", "Pierre", "Sophie", "Louis", "Camille", "Hugo", "Emma", "Paul", "Lea"};
+    private static final String[] GIVEN_NAMES = {"Martin", "Bernard", "Dubois", "Thomas", "Robert", "Richard", "Petit", "Durand", "Leroy", "Moreau"};
+    private static final int PRESTATIONS_PER_CONTRACT = 5;
+    private static final long UNITS_SOLD = 1_000_000_000L;
+    private static final int BATCH_SIZE = 10;
+
+    private final AppServerClient client;
+    private final PrestationStorage prestationStorage;
+    private final PrestationCatalogue prestationCatalogue;
+    private final LoadTestProperties properties;
+
+    public LoadTestService(AppServerClient client, PrestationStorage prestationStorage,
+                           PrestationCatalogue prestationCatalogue, LoadTestProperties properties) {
+        this.client = client;
+        this.prestationStorage = prestationStorage;
+        this.prestationCatalogue = prestationCatalogue;
+        this.properties = properties;
+    }
+
+    public LoadTestReport run() throws InterruptedException {
+        LOGGER.info("Load test : seeding {} prestations and {} customers", this.properties.prestations(), this.properties.customers());
+        List<String> salesSystemIds = this.seedPrestations();
+        List<Target> targets = this.seedCustomers(salesSystemIds);
+
+        LOGGER.info("Load test : warming up for {} with {} clients", this.properties.warmup(), this.properties.concurrency());
+        this.replay(targets, this.properties.warmup());
+        LOGGER.info("Load test : measuring for {} with {} clients", this.properties.duration(), this.properties.concurrency());
+        LoadTestReport report = this.replay(targets, this.properties.duration());
+
+        LOGGER.info("Load test : {} clients during {}, latencies in µs", this.properties.concurrency(), report.duration());
+        LOGGER.info(String.format("%-36s %9s %7s %9s %8s %8s %8s %8s %8s", "endpoint", "requests", "errors", "req/s", "p50", "p90", "p99", "p99.9", "max"));
+        for (LoadTestReport.Endpoint endpoint : report.endpoints()) {
+            LOGGER.info(String.format("%-36s %9d %7d %9.1f %8d %8d %8d %8d %8d", endpoint.name(), endpoint.requests(), endpoint.errors(),
+                    endpoint.throughput(), endpoint.p50(), endpoint.p90(), endpoint.p99(), endpoint.p999(), endpoint.max()));
+        }
+        return report;
+    }
+
+    private List<String> seedPrestations() {
+        List<Prestation> prestations = new ArrayList<>();
+        for (int i = 0; i < this.properties.prestations(); i++) {
+            Prestation prestation = new Prestation();
+            prestation.salesSystemId = PRESTATION_PREFIX + i;
+            prestation.name = "Load test prestation " + i;
+            prestation.unitPrice = 1 + ThreadLocalRandom.current().nextInt(100);
+            prestations.add(prestation);
+        }
+        this.prestationStorage.upsertAll(prestations);
+        this.prestationCatalogue.invalidateAll();
+        return prestations.stream().map(prestation -> prestation.salesSystemId).toList();
+    }
+
+    private List<Target> seedCustomers(List<String> salesSystemIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Target> targets = new ArrayList<>(this.properties.customers());
+        for (int i = 0; i < this.properties.customers(); i++) {
+            CustomerInput customerInput = new CustomerInput();
+            customerInput.firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            customerInput.givenName = GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)] + i;
+            customerInput.dateOfBirth = LocalDate.now().minusYears(18 + random.nextInt(60)).minusDays(random.nextInt(365));
+            AppServerClient.Response created = this.client.post("/customers", customerInput);
+            if (!created.isSuccess()) {
+                throw new IllegalStateException("Customer could not be created : " + created.status() + " " + created.body());
+            }
+            String customerId = this.client.json(created).path("id").asText();
+
+            ContractInput contractInput = new ContractInput();
+            contractInput.type = ContractType.PERMANENT;
+            contractInput.startDate = LocalDate.now().minusYears(1);
+            contractInput.soldPrestations = new ArrayList<>();
+            List<String> sold = new ArrayList<>();
+            while (sold.size() < Math.min(PRESTATIONS_PER_CONTRACT, salesSystemIds.size())) {
+                String salesSystemId = salesSystemIds.get(random.nextInt(salesSystemIds.size()));
+                if (!sold.contains(salesSystemId)) {
+                    SoldPrestationInput soldPrestation = new SoldPrestationInput();
+                    soldPrestation.salesSystemId = salesSystemId;
+                    soldPrestation.units = UNITS_SOLD;
+                    soldPrestation.totalBilledAmountForUnits = UNITS_SOLD;
+                    contractInput.soldPrestations.add(soldPrestation);
+                    sold.add(salesSystemId);
+                }
+            }
+            AppServerClient.Response withContract = this.client.post("/customers/" + customerId + "/contracts", contractInput);
+            if (!withContract.isSuccess()) {
+                throw new IllegalStateException("Contract could not be added : " + withContract.status() + " " + withContract.body());
+            }
+            JsonNode contracts = this.client.json(withContract).path("contracts");
+            String contractId = contracts.get(contracts.size() - 1).path("id").asText();
+            targets.add(new Target(customerId, contractId, customerInput.firstName, sold));
+        }
+        return targets;
+    }
+
+    private LoadTestReport replay(List<Target> targets, Duration duration) throws InterruptedException {
+        Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats(new LatencyHistogram(), new LongAdder()));
+        }
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < this.properties.concurrency(); i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        this.call(Operation.pick(), targets, stats);
+                    }
+                });
+            }
+            clients.shutdown();
+            if (!clients.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS)) {
+                LOGGER.warn("Load test clients still running, interrupting them");
+                clients.shutdownNow();
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        List<LoadTestReport.Endpoint> endpoints = stats.entrySet().stream()
+                .map(entry -> LoadTestReport.Endpoint.of(entry.getKey().endpoint, entry.getValue().latencies(),
+                        entry.getValue().errors().sum(), elapsed))
+                .toList();
+        return new LoadTestReport(elapsed, endpoints);
+    }
+
+    private void call(Operation operation, List<Target> targets, Map<Operation, Stats> stats) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Target target = targets.get(random.nextInt(targets.size()));
+        Supplier<AppServerClient.Response> request = switch (operation) {
+            case GET_CUSTOMER -> () -> this.client.get("/customers/" + target.customerId());
+            case SEARCH_CUSTOMERS -> () -> this.client.get("/customers/search?size=10&name=" + target.firstName());
+            case CONTRACT_BALANCE -> () -> this.client.get("/contracts/" + target.contractId() + "/balance");
+            case LIST_ACTIVITIES -> () -> this.client.get("/activities/contract/" + target.contractId() + "?size=50");
+            case ADD_ACTIVITY -> () -> this.client.post("/activities", activity(target, random));
+            case ADD_ACTIVITIES -> {
+                List<ActivityInput> batch = new ArrayList<>(BATCH_SIZE);
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    batch.add(activity(target, random));
+                }
+                yield () -> this.client.post("/activities/batch", batch);
+            }
+        };
+        Stats operationStats = stats.get(operation);
+        long start = System.nanoTime();
+        boolean success;
+        try {
+            success = request.get().isSuccess();
+        } catch (RuntimeException e) {
+            success = false;
+        }
+        operationStats.latencies().record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        if (!success) {
+            operationStats.errors().increment();
+        }
+    }
+
+    private static ActivityInput activity(Target target, ThreadLocalRandom random) {
+        ActivityInput activityInput = new ActivityInput();
+        activityInput.customerId = target.customerId();
+        activityInput.contractId = target.contractId();
+        activityInput.salesSystemId = target.salesSystemIds().get(random.nextInt(target.salesSystemIds().size()));
+        activityInput.doneOn = LocalDate.now().minusDays(random.nextInt(365));
+        activityInput.unitsConsumed = 1;
+        return activityInput;
+    }
+
+    /**
+     * Endpoints called, with their share of the traffic : mostly reads, as seen from the customer applications.
+     */
+    private enum Operation {
+        GET_CUSTOMER("GET /customers/{id}", 30),
+        SEARCH_CUSTOMERS("GET /customers/search", 10),
+        CONTRACT_BALANCE("GET /contracts/{id}/balance", 20),
+        LIST_ACTIVITIES("GET /activities/contract/{id}", 15),
+        ADD_ACTIVITY("POST /activities", 20),
+        ADD_ACTIVITIES("POST /activities/batch", 5);
+
+        private static final int TOTAL_WEIGHT = 100;
+
+        private final String endpoint;
+        private final int weight;
+
+        Operation(String endpoint, int weight) {
+            this.endpoint = endpoint;
+            this.weight = weight;
+        }
+
+        static Operation pick() {
+            int draw = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+            for (Operation operation : values()) {
+                draw -= operation.weight;
+                if (draw < 0) {
+                    return operation;
+                }
+            }
+            return GET_CUSTOMER;
+        }
+    }
+
+    private record Target(String customerId, String contractId, String firstName, List<String> salesSystemIds) {
+    }
+
+    private record Stats(LatencyHistogram latencies, LongAdder errors) {
+    }
+}
@@ -0,0 +1,11 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+/**
+ * How each word of a name search must match the words of the customer names (case and accents are ignored).
+ */
+public enum NameSearchMode {
+    /** 'dup' finds 'Dupont' */
+    PREFIX,
+    /** 'pon' finds 'Dupont' ; every word must have at least 3 characters */
+    CONTAINS
+}
@@ -0,0 +1,117 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import klee.solution.bulille.pocs.blink.appserver.config.CacheProperties;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.Prestation;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.PrestationStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Read-through cache of the prestations, which only change when a prestations file is imported.
+ * <p>
+ * Unknown salesSystemIds are cached too (as empty), so that invalid inputs do not hit the database either.
+ * The missing prestations are loaded with a single query. A load that started before an {@link #invalidateAll()} is not
+ * cached : the invalidation bumps a generation under a write lock, loaders only store their result if the generation
+ * did not change, under the read lock. So a value read before an import can never be cached after it.
+ * The cached documents are shared between callers and MUST NOT be modified.
+ * Hits, misses and evictions are published as the cache.* metrics of the 'prestations' cache.
+ */
+@Component
+public class PrestationCatalogue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrestationCatalogue.class);
+
+    private final PrestationStorage prestationStorage;
+    private final Cache<String, Optional<Prestation>> prestations;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final ReadWriteLock generationLock = new ReentrantReadWriteLock();
+
+    public PrestationCatalogue(PrestationStorage prestationStorage, CacheProperties cacheProperties, MeterRegistry meterRegistry) {
+        this.prestationStorage = prestationStorage;
+        this.prestations = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.prestationsMaxSize())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, this.prestations, "prestations");
+    }
+
+    @NonNull
+    public Optional<Prestation> find(@NonNull String salesSystemId) {
+        return Optional.ofNullable(this.findAll(List.of(salesSystemId)).get(salesSystemId));
+    }
+
+    /**
+     * @return the existing prestations among the given salesSystemIds, keyed by salesSystemId
+     */
+    @NonNull
+    public Map<String, Prestation> findAll(@NonNull Collection<String> salesSystemIds) {
+        Map<String, Optional<Prestation>> cached = this.prestations.getAllPresent(salesSystemIds);
+        Map<String, Prestation> found = new HashMap<>();
+        cached.forEach((salesSystemId, prestation) -> prestation.ifPresent(p -> found.put(salesSystemId, p)));
+        Set<String> missing = new HashSet<>(salesSystemIds);
+        missing.removeAll(cached.keySet());
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        long loadedAt = this.generation.get();
+        Map<String, Prestation> loaded = this.prestationStorage.findAll(missing);
+        Map<String, Optional<Prestation>> toCache = new HashMap<>();
+        missing.forEach(salesSystemId -> toCache.put(salesSystemId, Optional.ofNullable(loaded.get(salesSystemId))));
+
+        this.generationLock.readLock().lock();
+        try {
+            if (this.generation.get() == loadedAt) {
+                this.prestations.putAll(toCache);
+            }
+        } finally {
+            this.generationLock.readLock().unlock();
+        }
+        found.putAll(loaded);
+        return found;
+    }
+
+    /**
+     * To be called once prestations were written : the next reads go to the database.
+     */
+    public void invalidateAll() {
+        CacheStats stats = this.prestations.stats();
+        this.generationLock.writeLock().lock();
+        try {
+            this.generation.incrementAndGet();
+            this.prestations.invalidateAll();
+        } finally {
+            this.generationLock.writeLock().unlock();
+        }
+        LOGGER.info("Prestations cache cleared (hit ratio so far {}%, {} hits, {} misses, {} evictions)",
+                Math.round(stats.hitRate() * 100), stats.hitCount(), stats.missCount(), stats.evictionCount());
+    }
+
+    @NonNull
+    public CacheStats stats() {
+        return this.prestations.stats();
+    }
+
+    public long size() {
+        return this.prestations.estimatedSize();
+    }
+}
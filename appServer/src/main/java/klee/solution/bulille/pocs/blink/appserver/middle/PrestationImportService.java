@@ -0,0 +1,139 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import klee.solution.bulille.pocs.blink.appserver.config.PrestationImportProperties;
+import klee.solution.bulille.pocs.blink.appserver.out.file.ParallelPrestationCsvReader;
+import klee.solution.bulille.pocs.blink.appserver.out.file.PrestationBatch;
+import klee.solution.bulille.pocs.blink.appserver.out.file.PrestationCsvReader;
+import klee.solution.bulille.pocs.blink.appserver.out.file.PrestationRow;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.Prestation;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.PrestationStorage;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.PrestationWriteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Imports a prestations CSV file : its lines are read in batches, each batch being written with one bulk upsert.
+ * In delta mode, the lines identical to the stored prestation are not written at all.
+ * The {@link PrestationCatalogue} is cleared once the file is imported.
+ */
+@Service
+public class PrestationImportService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrestationImportService.class);
+
+    private final PrestationCsvReader prestationCsvReader;
+    private final ParallelPrestationCsvReader parallelPrestationCsvReader;
+    private final PrestationStorage prestationStorage;
+    private final PrestationCatalogue prestationCatalogue;
+    private final int batchSize;
+    private final boolean delta;
+    private final long parallelThreshold;
+
+    public PrestationImportService(PrestationCsvReader prestationCsvReader,
+                                   ParallelPrestationCsvReader parallelPrestationCsvReader,
+                                   PrestationStorage prestationStorage,
+                                   PrestationCatalogue prestationCatalogue,
+                                   PrestationImportProperties prestationImportProperties) {
+        this.prestationCsvReader = prestationCsvReader;
+        this.parallelPrestationCsvReader = parallelPrestationCsvReader;
+        this.prestationStorage = prestationStorage;
+        this.prestationCatalogue = prestationCatalogue;
+        this.batchSize = prestationImportProperties.batchSize();
+        this.delta = prestationImportProperties.delta();
+        this.parallelThreshold = prestationImportProperties.parallelThreshold().toBytes();
+        if (this.batchSize <= 0) {
+            throw new IllegalArgumentException("project.prestations.import.batch-size must be positive, got " + this.batchSize);
+        }
+    }
+
+    @NonNull
+    public PrestationImportSummary importFile(@NonNull Path csvFile) throws IOException {
+        LOGGER.info("Importing prestations from {} (batches of {} lines, delta mode: {})", csvFile, this.batchSize, this.delta);
+        AtomicReference<PrestationImportSummary> summary = new AtomicReference<>(PrestationImportSummary.empty());
+
+        Consumer<PrestationBatch> importBatch = batch -> summary.set(this.importBatch(batch, summary.get()));
+        boolean read;
+        try {
+            if (Files.size(csvFile) >= this.parallelThreshold) {
+                // very large file : parsed in parallel chunks while the batches are written
+                read = this.parallelPrestationCsvReader.read(csvFile, this.batchSize, importBatch);
+            } else {
+                read = this.prestationCsvReader.read(csvFile, this.batchSize, importBatch);
+            }
+        } finally {
+            // even a failed import may have written some batches
+            this.prestationCatalogue.invalidateAll();
+        }
+        if (!read) {
+            LOGGER.error("Prestations file {} was not imported", csvFile);
+            return summary.get();
+        }
+
+        PrestationImportSummary totals = summary.get();
+        LOGGER.info("Imported prestations from {} : {} batches, {} inserted, {} updated, {} skipped as unchanged, {} rejected",
+                csvFile, totals.batches(), totals.inserted(), totals.updated(), totals.unchanged(), totals.rejected());
+        return totals;
+    }
+
+    private PrestationImportSummary importBatch(PrestationBatch batch, PrestationImportSummary summary) {
+        // the same salesSystemId may appear several times in the file : the last line wins, as it would line by line
+        Map<String, PrestationRow> rows = new LinkedHashMap<>();
+        for (PrestationRow row : batch.rows()) {
+            rows.put(row.salesSystemId(), row);
+        }
+
+        int unchanged = 0;
+        if (this.delta) {
+            unchanged = this.removeUnchanged(rows);
+        }
+
+        List<Prestation> prestations = rows.values().stream().map(PrestationImportService::toPrestation).toList();
+        PrestationWriteResult result = this.prestationStorage.upsertAll(prestations);
+        int rejected = batch.rejected() + result.rejected();
+        LOGGER.info("Prestations batch #{} : {} inserted, {} updated, {} skipped as unchanged, {} rejected",
+                batch.number(), result.inserted(), result.updated(), unchanged, rejected);
+        return summary.add(result.inserted(), result.updated(), unchanged, rejected);
+    }
+
+    /**
+     * Removes the rows whose (salesSystemId, name, unitPrice) is exactly what is already stored.
+     *
+     * @return the number of rows removed
+     */
+    private int removeUnchanged(Map<String, PrestationRow> rows) {
+        Map<String, Prestation> stored = this.prestationStorage.findAll(rows.keySet());
+        int before = rows.size();
+        rows.values().removeIf(row -> {
+            Prestation existing = stored.get(row.salesSystemId());
+            boolean unchanged = existing != null && row.equals(toRow(existing));
+            if (unchanged) {
+                LOGGER.debug("Prestation {} unchanged, skipped", row.salesSystemId());
+            }
+            return unchanged;
+        });
+        return before - rows.size();
+    }
+
+    private static PrestationRow toRow(Prestation prestation) {
+        return new PrestationRow(prestation.salesSystemId, prestation.name, prestation.unitPrice);
+    }
+
+    private static Prestation toPrestation(PrestationRow row) {
+        Prestation prestation = new Prestation();
+        prestation.salesSystemId = row.salesSystemId();
+        prestation.name = row.name();
+        prestation.unitPrice = row.unitPrice();
+        return prestation;
+    }
+}
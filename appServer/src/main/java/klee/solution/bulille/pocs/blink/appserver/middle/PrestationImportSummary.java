@@ -0,0 +1,19 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+/**
+ * Totals of a prestations file import.
+ */
+public record PrestationImportSummary(int batches, long inserted, long updated, long unchanged, long rejected) {
+
+    public static PrestationImportSummary empty() {
+        return new PrestationImportSummary(0, 0, 0, 0, 0);
+    }
+
+    public PrestationImportSummary add(long inserted, long updated, long unchanged, long rejected) {
+        return new PrestationImportSummary(this.batches + 1,
+                this.inserted + inserted,
+                this.updated + updated,
+                this.unchanged + unchanged,
+                this.rejected + rejected);
+    }
+}
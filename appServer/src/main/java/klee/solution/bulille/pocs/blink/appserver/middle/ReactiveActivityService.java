@@ -0,0 +1,55 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.Activity;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.ReactiveActivityStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking counterpart of the reads of {@link ActivityService}.
+ */
+@Service
+@Profile(Profiles.REACTIVE)
+public class ReactiveActivityService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveActivityService.class);
+
+    private final ReactiveActivityStorage activityStorage;
+
+    public ReactiveActivityService(ReactiveActivityStorage activityStorage) {
+        this.activityStorage = activityStorage;
+    }
+
+    public Mono<CursorPage<Activity>> getActivitiesForContract(String contractId, Optional<LocalDate> from, Optional<LocalDate> to,
+                                                               Optional<String> cursor, int size) {
+        return Mono.defer(() -> {
+            ActivityService.checkListing(contractId, from, to);
+            return this.activityStorage.findByContract(contractId, from, to, cursor, size);
+        });
+    }
+
+    /**
+     * Every activity of a contract, sorted by date ; they are read from the database as fast as the subscriber
+     * consumes them. from and to are inclusive.
+     */
+    public Flux<Activity> exportActivitiesForContract(String contractId, Optional<LocalDate> from, Optional<LocalDate> to) {
+        return Flux.defer(() -> {
+            ActivityService.checkListing(contractId, from, to);
+            LOGGER.info("Exporting activities of contract {} ({} - {})", contractId, from.orElse(null), to.orElse(null));
+            AtomicLong count = new AtomicLong();
+            return this.activityStorage.streamByContract(contractId, from, to)
+                    .doOnNext(activity -> count.incrementAndGet())
+                    .doOnComplete(() -> LOGGER.info("Exported {} activities of contract {}", count.get(), contractId))
+                    .doOnCancel(() -> LOGGER.info("Export of the activities of contract {} cancelled after {}", contractId, count.get()));
+        });
+    }
+}
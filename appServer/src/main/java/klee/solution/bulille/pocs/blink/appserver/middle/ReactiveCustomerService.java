@@ -0,0 +1,59 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs.CustomerOutput;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.outputs.CustomerSummaryOutput;
+import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.ReactiveCustomerStorage;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Non-blocking counterpart of the reads of {@link CustomerService}.
+ */
+@Component
+@Profile(Profiles.REACTIVE)
+public class ReactiveCustomerService {
+
+    private final ReactiveCustomerStorage customerStorage;
+
+    public ReactiveCustomerService(ReactiveCustomerStorage customerStorage) {
+        this.customerStorage = customerStorage;
+    }
+
+    public Mono<Customer> find(CustomerId customerId) {
+        return this.customerStorage.find(customerId);
+    }
+
+    /**
+     * Offset-paginated search ; all customers if there is no name query.
+     */
+    public Mono<Page<CustomerSummaryOutput>> searchCustomerSummaries(String nameQuery, NameSearchMode mode, Pageable pageable) {
+        return this.customerStorage.searchByName(nameQuery, mode, pageable, CustomerView.SUMMARY)
+                .map(page -> page.map(CustomerSummaryOutput::from));
+    }
+
+    public Mono<Page<CustomerOutput>> searchCustomers(String nameQuery, NameSearchMode mode, Pageable pageable) {
+        return this.customerStorage.searchByName(nameQuery, mode, pageable, CustomerView.FULL)
+                .map(page -> page.map(CustomerOutput::from));
+    }
+
+    /**
+     * Keyset-paginated search ; all customers if there is no name query.
+     */
+    public Mono<CursorPage<CustomerSummaryOutput>> searchCustomerSummaries(String nameQuery, NameSearchMode mode, Optional<String> cursor, int size, boolean includeTotal) {
+        return this.customerStorage.searchByName(nameQuery, mode, cursor, size, includeTotal, CustomerView.SUMMARY)
+                .map(page -> page.map(CustomerSummaryOutput::from));
+    }
+
+    public Mono<CursorPage<CustomerOutput>> searchCustomers(String nameQuery, NameSearchMode mode, Optional<String> cursor, int size, boolean includeTotal) {
+        return this.customerStorage.searchByName(nameQuery, mode, cursor, size, includeTotal, CustomerView.FULL)
+                .map(page -> page.map(CustomerOutput::from));
+    }
+}
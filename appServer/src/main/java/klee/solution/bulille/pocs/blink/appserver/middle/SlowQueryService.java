@@ -0,0 +1,38 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.SlowQuery;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.SlowQueryLog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * The MongoDB commands found slower than project.mongo.slow-queries.threshold ; see SlowQueryProfiler.
+ */
+@Service
+public class SlowQueryService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowQueryService.class);
+
+    private final SlowQueryLog slowQueryLog;
+
+    public SlowQueryService(SlowQueryLog slowQueryLog) {
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    /**
+     * @return the last slow commands, most recent first
+     */
+    @NonNull
+    public List<SlowQuery> recent() {
+        return this.slowQueryLog.recent();
+    }
+
+    public void clear() {
+        LOGGER.info("Clearing the slow MongoDB commands");
+        this.slowQueryLog.clear();
+    }
+}
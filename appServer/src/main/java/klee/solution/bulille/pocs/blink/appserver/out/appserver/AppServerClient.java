@@ -0,0 +1,97 @@
+package klee.solution.bulille.pocs.blink.appserver.out.appserver;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * HTTP client of this very app, as an external client would call it ; used by the load test.
+ * The port is read on first use, once the server listens (it may be random, with server.port=0).
+ */
+@Component
+@Profile(Profiles.LOAD_TEST)
+public class AppServerClient {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final Environment environment;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(TIMEOUT)
+            .build();
+    private volatile URI baseUri;
+
+    public AppServerClient(Environment environment, ObjectMapper objectMapper) {
+        this.environment = environment;
+        this.objectMapper = objectMapper;
+    }
+
+    public Response get(String path) {
+        return this.send(this.request(path).GET());
+    }
+
+    public Response post(String path, Object body) {
+        try {
+            return this.send(this.request(path)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(this.objectMapper.writeValueAsBytes(body))));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize request body", e);
+        }
+    }
+
+    public JsonNode json(Response response) {
+        try {
+            return this.objectMapper.readTree(response.body());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response is not JSON: " + response.body(), e);
+        }
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(this.baseUri().resolve(path)).timeout(TIMEOUT);
+    }
+
+    private Response send(HttpRequest.Builder request) {
+        try {
+            HttpResponse<String> response = this.httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            return new Response(response.statusCode(), response.body());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + request.build().uri(), e);
+        }
+    }
+
+    private URI baseUri() {
+        if (this.baseUri == null) {
+            String port = this.environment.getProperty("local.server.port", this.environment.getProperty("server.port", "8080"));
+            this.baseUri = URI.create("http://localhost:" + port);
+        }
+        return this.baseUri;
+    }
+
+    /**
+     * @param status HTTP status of the response
+     * @param body   raw body of the response
+     */
+    public record Response(int status, String body) {
+
+        public boolean isSuccess() {
+            return this.status >= 200 && this.status < 300;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package klee.solution.bulille.pocs.blink.appserver.out.file;
+
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.inputs.ActivityInput;
+
+import java.util.Optional;
+
+/**
+ * One line of an activities file.
+ *
+ * @param lineNumber 1-based line number in the file
+ * @param input      the activity read from the line, if it could be read
+ * @param error      why the line could not be read, if it could not
+ */
+public record ActivityFileLine(long lineNumber, Optional<ActivityInput> input, Optional<String> error) {
+
+    public static ActivityFileLine read(long lineNumber, ActivityInput input) {
+        return new ActivityFileLine(lineNumber, Optional.of(input), Optional.empty());
+    }
+
+    public static ActivityFileLine unreadable(long lineNumber, String error) {
+        return new ActivityFileLine(lineNumber, Optional.empty(), Optional.of(error));
+    }
+}
@@ -0,0 +1,146 @@
+package klee.solution.bulille.pocs.blink.appserver.out.file;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.inputs.ActivityInput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Reads an activities file and hands its lines over in batches. Two formats are supported :
+ * <ul>
+ *     <li>NDJSON (*.ndjson, *.jsonl) : one activity per line, with the same fields as POST /activities</li>
+ *     <li>CSV (any other extension) : customerId,contractId,salesSystemId,doneOn,unitsConsumed</li>
+ * </ul>
+ */
+@Component
+public class ActivityFileReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ActivityFileReader.class);
+    private static final String[] CSV_HEADER = {"customerId", "contractId", "salesSystemId", "doneOn", "unitsConsumed"};
+
+    private final ObjectMapper objectMapper;
+
+    public ActivityFileReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return false if the file was not read because its header is missing or invalid
+     */
+    public boolean read(@NonNull Path activityFile, int batchSize, @NonNull Consumer<List<ActivityFileLine>> batchConsumer) throws IOException {
+        String fileName = activityFile.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (fileName.endsWith(".ndjson") || fileName.endsWith(".jsonl")) {
+            this.readNdjson(activityFile, batchSize, batchConsumer);
+            return true;
+        }
+        return readCsv(activityFile, batchSize, batchConsumer);
+    }
+
+    private void readNdjson(Path activityFile, int batchSize, Consumer<List<ActivityFileLine>> batchConsumer) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(activityFile, StandardCharsets.UTF_8)) {
+            List<ActivityFileLine> lines = new ArrayList<>(batchSize);
+            long lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    ActivityInput input = this.objectMapper.readValue(line, ActivityInput.class);
+                    lines.add(input == null
+                            ? ActivityFileLine.unreadable(lineNumber, "Invalid JSON: expected an activity object, got null")
+                            : ActivityFileLine.read(lineNumber, input));
+                } catch (JsonProcessingException e) {
+                    lines.add(ActivityFileLine.unreadable(lineNumber, "Invalid JSON: " + e.getOriginalMessage()));
+                }
+                if (lines.size() >= batchSize) {
+                    batchConsumer.accept(lines);
+                    lines = new ArrayList<>(batchSize);
+                }
+            }
+            if (!lines.isEmpty()) {
+                batchConsumer.accept(lines);
+            }
+        }
+    }
+
+    private static boolean readCsv(Path activityFile, int batchSize, Consumer<List<ActivityFileLine>> batchConsumer) throws IOException {
+        try (CSVReader csvReader = new CSVReader(Files.newBufferedReader(activityFile, StandardCharsets.UTF_8))) {
+
+            String[] header = csvReader.readNext();
+            if (header == null || header.length < CSV_HEADER.length) {
+                LOGGER.error("CSV header is missing or does not have enough columns. Expected {}", String.join(",", CSV_HEADER));
+                return false;
+            }
+            for (int i = 0; i < CSV_HEADER.length; i++) {
+                if (!CSV_HEADER[i].equalsIgnoreCase(header[i].trim())) {
+                    LOGGER.warn("CSV header names do not match expected '{}'. Processing based on column order.", String.join(",", CSV_HEADER));
+                    break;
+                }
+            }
+
+            List<ActivityFileLine> lines = new ArrayList<>(batchSize);
+            String[] line;
+            while ((line = csvReader.readNext()) != null) {
+                long lineNumber = csvReader.getLinesRead();
+                if (line.length == 1 && line[0].isBlank()) {
+                    continue;
+                }
+                lines.add(parse(lineNumber, line));
+                if (lines.size() >= batchSize) {
+                    batchConsumer.accept(lines);
+                    lines = new ArrayList<>(batchSize);
+                }
+            }
+            if (!lines.isEmpty()) {
+                batchConsumer.accept(lines);
+            }
+            return true;
+        } catch (CsvValidationException e) {
+            throw new IOException("Invalid CSV content in " + activityFile, e);
+        }
+    }
+
+    private static ActivityFileLine parse(long lineNumber, String[] line) {
+        if (line.length < CSV_HEADER.length) {
+            return ActivityFileLine.unreadable(lineNumber, "Not enough columns, expected " + String.join(",", CSV_HEADER));
+        }
+        ActivityInput input = new ActivityInput();
+        input.customerId = emptyToNull(line[0]);
+        input.contractId = emptyToNull(line[1]);
+        input.salesSystemId = emptyToNull(line[2]);
+        try {
+            input.doneOn = line[3].isBlank() ? null : LocalDate.parse(line[3].trim());
+        } catch (DateTimeParseException e) {
+            return ActivityFileLine.unreadable(lineNumber, "Invalid doneOn format: " + line[3]);
+        }
+        try {
+            input.unitsConsumed = Double.parseDouble(line[4].trim());
+        } catch (NumberFormatException e) {
+            return ActivityFileLine.unreadable(lineNumber, "Invalid unitsConsumed format: " + line[4]);
+        }
+        return ActivityFileLine.read(lineNumber, input);
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
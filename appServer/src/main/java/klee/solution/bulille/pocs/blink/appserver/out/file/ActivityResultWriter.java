@@ -0,0 +1,42 @@
+package klee.solution.bulille.pocs.blink.appserver.out.file;
+
+import com.opencsv.CSVWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes the outcome of each line of an imported activities file, as CSV (line,status,activityId,message).
+ */
+public class ActivityResultWriter implements Closeable {
+
+    private static final String[] HEADER = {"line", "status", "activityId", "message"};
+
+    private final CSVWriter csvWriter;
+
+    private ActivityResultWriter(CSVWriter csvWriter) {
+        this.csvWriter = csvWriter;
+    }
+
+    public static ActivityResultWriter create(Path resultFile) throws IOException {
+        ActivityResultWriter writer = new ActivityResultWriter(new CSVWriter(Files.newBufferedWriter(resultFile, StandardCharsets.UTF_8)));
+        writer.csvWriter.writeNext(HEADER);
+        return writer;
+    }
+
+    public void accepted(long lineNumber, String activityId) {
+        this.csvWriter.writeNext(new String[]{String.valueOf(lineNumber), "ACCEPTED", activityId, ""});
+    }
+
+    public void rejected(long lineNumber, String message) {
+        this.csvWriter.writeNext(new String[]{String.valueOf(lineNumber), "REJECTED", "", message});
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.csvWriter.close();
+    }
+}
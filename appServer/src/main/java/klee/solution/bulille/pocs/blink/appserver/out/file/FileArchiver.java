@@ -0,0 +1,48 @@
+package klee.solution.bulille.pocs.blink.appserver.out.file;
+
+import klee.solution.bulille.pocs.blink.appserver.config.FileStorageProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Moves processed input files to the archives folder, suffixed with the time they were archived.
+ */
+@Component
+public class FileArchiver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileArchiver.class);
+
+    private final Path archivePath;
+
+    public FileArchiver(FileStorageProperties fileStorageProperties) {
+        this.archivePath = fileStorageProperties.archives();
+        try {
+            Files.createDirectories(this.archivePath);
+            LOGGER.info("Archive directory: {}", this.archivePath);
+        } catch (IOException e) {
+            LOGGER.error("Could not create archive directory!", e);
+        }
+    }
+
+    public void archive(@NonNull Path fileToArchive) {
+        try {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+            Path archivedFileName = Paths.get(fileToArchive.getFileName() + "." + timestamp);
+            Path targetPath = this.archivePath.resolve(archivedFileName);
+            Files.move(fileToArchive, targetPath, StandardCopyOption.REPLACE_EXISTING);
+            LOGGER.info("Archived processed file to: {}", targetPath);
+        } catch (IOException e) {
+            LOGGER.error("Could not archive file {}: ", fileToArchive, e);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package klee.solution.bulille.pocs.blink.appserver.out.file;
+
+import com.opencsv.CSVParser;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import klee.solution.bulille.pocs.blink.appserver.config.PrestationImportProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * High-throughput variant of {@link PrestationCsvReader}, for very large files.
+ * <p>
+ * The file is memory-mapped and split into line-aligned chunks, parsed in parallel on a dedicated fork-join pool.
+ * Parsed batches go through a bounded queue to the calling thread, so that parsing and the consumer's writes overlap
+ * while parsing can never run too far ahead of them.
+ * <p>
+ * Limitations compared to the sequential reader : quoted values spanning several lines are rejected, and batches
+ * reach the consumer in no particular order (a salesSystemId present twice in the file may end up with either line).
+ */
+@Component
+public class ParallelPrestationCsvReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParallelPrestationCsvReader.class);
+    private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+    private static final long QUEUE_POLL_MILLIS = 100;
+
+    private final ForkJoinPool parsers;
+    private final long chunkSize;
+    private final int queueCapacity;
+
+    public ParallelPrestationCsvReader(PrestationImportProperties properties, MeterRegistry meterRegistry) {
+        int parallelism = properties.parallelism() > 0 ? properties.parallelism() : Runtime.getRuntime().availableProcessors();
+        this.parsers = new ForkJoinPool(parallelism);
+        new ExecutorServiceMetrics(this.parsers, "prestations.parsers", Tags.empty()).bindTo(meterRegistry);
+        this.chunkSize = properties.chunkSize().toBytes();
+        if (this.chunkSize <= 0 || this.chunkSize > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("project.prestations.import.parallel.chunk-size must be between 1B and 1GB, got " + properties.chunkSize());
+        }
+        this.queueCapacity = properties.queueCapacity();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.parsers.shutdownNow();
+    }
+
+    /**
+     * Same contract as {@link PrestationCsvReader#read(Path, int, Consumer)} ; the consumer is called on the calling thread.
+     */
+    public boolean read(@NonNull Path csvFile, int batchSize, @NonNull Consumer<PrestationBatch> batchConsumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(csvFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            long headerEnd = nextLineStart(channel, 0, size);
+            String[] header = new CSVParser().parseLine(readLine(channel, 0, headerEnd));
+            if (!PrestationCsvReader.isValidHeader(header)) {
+                return false;
+            }
+
+            List<Chunk> chunks = this.split(channel, headerEnd, size);
+            LOGGER.info("Parsing {} ({} bytes) in {} chunks on {} threads", csvFile, size, chunks.size(), this.parsers.getParallelism());
+            if (chunks.isEmpty()) {
+                return true;
+            }
+
+            BlockingQueue<Object> queue = new ArrayBlockingQueue<>(this.queueCapacity);
+            AtomicBoolean aborted = new AtomicBoolean(false);
+            AtomicInteger remainingChunks = new AtomicInteger(chunks.size());
+            for (Chunk chunk : chunks) {
+                this.parsers.execute(() -> parseChunk(channel, chunk, batchSize, queue, aborted, remainingChunks));
+            }
+
+            try {
+                consume(queue, batchConsumer);
+            } finally {
+                // stops the parsers still running if the consumer failed
+                aborted.set(true);
+            }
+            return true;
+        }
+    }
+
+    private static void consume(BlockingQueue<Object> queue, Consumer<PrestationBatch> batchConsumer) throws IOException {
+        int batchNumber = 0;
+        try {
+            while (true) {
+                Object item = queue.take();
+                if (item == EndOfFile.INSTANCE) {
+                    return;
+                }
+                if (item instanceof Failure failure) {
+                    throw new IOException("Could not parse chunk of prestations file", failure.cause());
+                }
+                PrestationBatch batch = (PrestationBatch) item;
+                batchConsumer.accept(new PrestationBatch(++batchNumber, batch.rows(), batch.rejected()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading prestations file", e);
+        }
+    }
+
+    private static void parseChunk(FileChannel channel, Chunk chunk, int batchSize,
+                                   BlockingQueue<Object> queue, AtomicBoolean aborted, AtomicInteger remainingChunks) {
+        try {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk.start(), chunk.end() - chunk.start());
+            CSVParser parser = new CSVParser();
+            byte[] line = new byte[256];
+
+            List<PrestationRow> rows = new ArrayList<>(batchSize);
+            int rejected = 0;
+            int lineStart = 0;
+            int limit = buffer.limit();
+            for (int position = 0; position <= limit; position++) {
+                if (position < limit && buffer.get(position) != '\n') {
+                    continue;
+                }
+                int length = position - lineStart;
+                if (length > 0 && buffer.get(lineStart + length - 1) == '\r') {
+                    length--;
+                }
+                if (position < limit || length > 0) {
+                    if (line.length < length) {
+                        line = new byte[Math.max(length, line.length * 2)];
+                    }
+                    buffer.get(lineStart, line, 0, length);
+                    Optional<PrestationRow> row = parseLine(parser, new String(line, 0, length, StandardCharsets.UTF_8));
+                    if (parser.isPending()) {
+                        // unterminated quoted value : start over with a fresh parser rather than joining the next line
+                        parser = new CSVParser();
+                    }
+                    if (row.isPresent()) {
+                        rows.add(row.get());
+                    } else {
+                        rejected++;
+                    }
+                    if (rows.size() + rejected >= batchSize) {
+                        put(queue, new PrestationBatch(0, rows, rejected), aborted);
+                        rows = new ArrayList<>(batchSize);
+                        rejected = 0;
+                    }
+                }
+                lineStart = position + 1;
+            }
+            if (!rows.isEmpty() || rejected > 0) {
+                put(queue, new PrestationBatch(0, rows, rejected), aborted);
+            }
+            if (remainingChunks.decrementAndGet() == 0) {
+                put(queue, EndOfFile.INSTANCE, aborted);
+            }
+        } catch (CancellationException e) {
+            LOGGER.debug("Parsing of chunk {} cancelled", chunk);
+        } catch (IOException | RuntimeException e) {
+            try {
+                put(queue, new Failure(e), aborted);
+            } catch (CancellationException cancelled) {
+                LOGGER.debug("Parsing of chunk {} cancelled", chunk);
+            }
+        }
+    }
+
+    private static Optional<PrestationRow> parseLine(CSVParser parser, String line) {
+        try {
+            String[] values = parser.parseLine(line);
+            if (parser.isPending()) {
+                // multi-line values are not supported when reading in chunks
+                LOGGER.warn("Skipping line with an unterminated quoted value: {}", line);
+                return Optional.empty();
+            }
+            return PrestationCsvReader.parse(values);
+        } catch (IOException e) {
+            LOGGER.warn("Skipping unparseable line: {}", line);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Blocks until the item fits in the queue, unless the read was aborted.
+     */
+    private static void put(BlockingQueue<Object> queue, Object item, AtomicBoolean aborted) {
+        try {
+            while (!queue.offer(item, QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (aborted.get()) {
+                    throw new CancellationException();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Cuts [from, size[ in chunks of about chunkSize bytes, each one ending right after a line feed (or at the end of the file).
+     */
+    private List<Chunk> split(FileChannel channel, long from, long size) throws IOException {
+        List<Chunk> chunks = new ArrayList<>();
+        long start = from;
+        while (start < size) {
+            long end = start + this.chunkSize >= size ? size : nextLineStart(channel, start + this.chunkSize, size);
+            chunks.add(new Chunk(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * @return the position right after the first line feed at or after position, or size if there is none
+     */
+    private static long nextLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long offset = position;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private static String readLine(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+        channel.read(buffer, start);
+        String line = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        return line.stripTrailing();
+    }
+
+    private record Chunk(long start, long end) {
+    }
+
+    private record Failure(Exception cause) {
+    }
+
+    private enum EndOfFile {
+        INSTANCE
+    }
+}
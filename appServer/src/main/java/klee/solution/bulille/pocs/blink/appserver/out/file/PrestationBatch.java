@@ -0,0 +1,13 @@
+package klee.solution.bulille.pocs.blink.appserver.out.file;
+
+import java.util.List;
+
+/**
+ * A batch of consecutive lines read from a prestations CSV file.
+ *
+ * @param number   1-based number of the batch in the file
+ * @param rows     the valid lines of the batch
+ * @param rejected number of lines of the batch that could not be parsed
+ */
+public record PrestationBatch(int number, List<PrestationRow> rows, int rejected) {
+}
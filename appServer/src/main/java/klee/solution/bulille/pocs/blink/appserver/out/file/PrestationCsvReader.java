@@ -0,0 +1,97 @@
+package klee.solution.bulille.pocs.blink.appserver.out.file;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Reads a prestations CSV file (salesSystemId,name,unitPrice) and hands its lines over in batches.
+ */
+@Component
+public class PrestationCsvReader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PrestationCsvReader.class);
+
+    /**
+     * @return false if the file was not read because its header is missing or invalid
+     */
+    public boolean read(@NonNull Path csvFile, int batchSize, @NonNull Consumer<PrestationBatch> batchConsumer) throws IOException {
+        try (CSVReader csvReader = new CSVReader(Files.newBufferedReader(csvFile, StandardCharsets.UTF_8))) {
+
+            String[] header = csvReader.readNext(); // Read header
+            if (!isValidHeader(header)) {
+                return false;
+            }
+
+            int batchNumber = 0;
+            List<PrestationRow> rows = new ArrayList<>(batchSize);
+            int rejected = 0;
+
+            String[] line;
+            while ((line = csvReader.readNext()) != null) {
+                Optional<PrestationRow> row = parse(line);
+                if (row.isPresent()) {
+                    rows.add(row.get());
+                } else {
+                    rejected++;
+                }
+                if (rows.size() + rejected >= batchSize) {
+                    batchConsumer.accept(new PrestationBatch(++batchNumber, rows, rejected));
+                    rows = new ArrayList<>(batchSize);
+                    rejected = 0;
+                }
+            }
+            if (!rows.isEmpty() || rejected > 0) {
+                batchConsumer.accept(new PrestationBatch(++batchNumber, rows, rejected));
+            }
+            return true;
+        } catch (CsvValidationException e) {
+            throw new IOException("Invalid CSV content in " + csvFile, e);
+        }
+    }
+
+    /**
+     * Checks the header line of a prestations CSV file ; logs why it is not valid.
+     */
+    public static boolean isValidHeader(String[] header) {
+        if (header == null || header.length < 3) { // Basic validation for expected columns
+            LOGGER.error("CSV header is missing or does not have enough columns. Expected salesSystemId,name,unitPrice");
+            return false;
+        }
+        // Simple validation of header names (optional but good)
+        if (!"salesSystemId".equalsIgnoreCase(header[0]) ||
+            !"name".equalsIgnoreCase(header[1]) ||
+            !"unitPrice".equalsIgnoreCase(header[2])) {
+            LOGGER.warn("CSV header names do not match expected 'salesSystemId,name,unitPrice'. Processing based on column order.");
+        }
+        return true;
+    }
+
+    /**
+     * Converts one CSV line to a row ; logs why the line is rejected if it cannot be converted.
+     */
+    public static Optional<PrestationRow> parse(String[] line) {
+        if (line.length < 3) {
+            LOGGER.warn("Skipping malformed line (not enough columns): {}", String.join(",", line));
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new PrestationRow(line[0], line[1], Double.parseDouble(line[2])));
+        } catch (NumberFormatException e) {
+            LOGGER.error("Skipping line due to invalid unitPrice format: {}. Line: {}", line[2], String.join(",", line));
+            return Optional.empty();
+        }
+    }
+}
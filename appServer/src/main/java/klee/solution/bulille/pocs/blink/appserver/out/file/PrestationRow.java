@@ -0,0 +1,7 @@
+package klee.solution.bulille.pocs.blink.appserver.out.file;
+
+/**
+ * One valid line of a prestations CSV file.
+ */
+public record PrestationRow(String salesSystemId, String name, double unitPrice) {
+}
@@ -1,50 +1,71 @@
 package klee.solution.bulille.pocs.blink.appserver.out.file;
 
 import com.opencsv.CSVWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import klee.solution.bulille.pocs.blink.appserver.config.FileStorageProperties;
-import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.Activity;
-import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.ActivityRepository;
+import klee.solution.bulille.pocs.blink.appserver.config.JobLeaseProperties;
+import klee.solution.bulille.pocs.blink.appserver.middle.JobLeaseService;
 import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
-import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.CustomerRepository;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.CustomerStorage;
 import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Contract;
-import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.Prestation;
-import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.PrestationRepository;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.lease.JobLease;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger.ContractLedgerStorage;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import klee.solution.bulille.pocs.blink.appserver.config.SchedulerConfig;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.io.FileWriter;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
 
 
 @Service
 public class ReportGenerationService {
 
     private static final Logger logger = LoggerFactory.getLogger(ReportGenerationService.class);
-    private final CustomerRepository customerRepository;
-    private final ActivityRepository activityRepository;
-    private final PrestationRepository prestationRepository;
-    private final Path outputReportingPath;
+    private static final String[] HEADER = {"contract_id", "sum_billed_activity_amount_euris", "remaining_balance_euris"};
 
-    public ReportGenerationService(CustomerRepository customerRepository,
-                                   ActivityRepository activityRepository,
-                                   PrestationRepository prestationRepository,
-                                   FileStorageProperties fileStorageProperties) {
-        this.customerRepository = customerRepository;
-        this.activityRepository = activityRepository;
-        this.prestationRepository = prestationRepository;
+    private final CustomerStorage customerStorage;
+    private final ContractLedgerStorage contractLedgerStorage;
+    private final Path outputReportingPath;
+    private final MeterRegistry meterRegistry;
+    private final Counter reportRows;
+    private final JobLeaseService jobLeaseService;
+    private final Duration leaseAtMost;
+    private final Duration leaseAtLeast;
+
+    public ReportGenerationService(CustomerStorage customerStorage,
+                                   ContractLedgerStorage contractLedgerStorage,
+                                   FileStorageProperties fileStorageProperties,
+                                   MeterRegistry meterRegistry,
+                                   JobLeaseService jobLeaseService,
+                                   JobLeaseProperties jobLeaseProperties) {
+        this.customerStorage = customerStorage;
+        this.contractLedgerStorage = contractLedgerStorage;
+        this.jobLeaseService = jobLeaseService;
+        this.leaseAtMost = jobLeaseProperties.reportAtMost();
+        this.leaseAtLeast = jobLeaseProperties.reportAtLeast();
+        this.meterRegistry = meterRegistry;
+        this.reportRows = Counter.builder("report.rows")
+                .description("Contracts written in the hourly reports")
+                .register(meterRegistry);
 
         this.outputReportingPath = fileStorageProperties.output();
 
@@ -56,69 +77,122 @@ public class ReportGenerationService {
         }
     }
 
-    // Scheduled to run every hour at the top of the hour
-    @Scheduled(cron = "0 0 * * * ?")
+    // Scheduled to run every hour at the top of the hour, on the one instance that gets the lease of the report ;
+    // timed as report.generation, tagged by outcome
+    @Scheduled(cron = "0 0 * * * ?", scheduler = SchedulerConfig.REPORT_SCHEDULER)
     public void generateHourlyReport() {
-        logger.info("Starting hourly report generation...");
-        List<Customer> customers = customerRepository.findAll();
-        if (customers.isEmpty()) {
-            logger.info("No customers found. Report generation skipped.");
-            return;
+        Timer.Sample sample = Timer.start(this.meterRegistry);
+        AtomicReference<String> outcome = new AtomicReference<>("failure");
+        try {
+            if (!this.jobLeaseService.runExclusively(JobLeaseService.HOURLY_REPORT, this.leaseAtMost, this.leaseAtLeast,
+                    lease -> outcome.set(this.writeReport(lease)))) {
+                outcome.set("skipped");
+            }
+        } finally {
+            sample.stop(Timer.builder("report.generation")
+                    .description("Generation of the hourly report")
+                    .tag("outcome", outcome.get())
+                    .register(this.meterRegistry));
         }
+    }
+
+    /**
+     * @return the outcome of the generation : success, empty (no ongoing contract), fenced (the lease was taken over
+     * by another instance, the report is discarded) or failure
+     */
+    private String writeReport(JobLease lease) {
+        logger.info("Starting hourly report generation...");
 
-        // Fetch all necessary prestations into a map for quick lookup
-        Map<String, Prestation> prestationMap = prestationRepository.findAll().stream()
-            .collect(Collectors.toMap(p -> p.salesSystemId, Function.identity()));
+        // Consumed amounts of all contracts, summed by the database from the contract ledger
+        Map<String, Double> billedAmounts = contractLedgerStorage.billedAmountPerContract();
+
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        String fileName = "report_" + timestamp + ".csv";
+        Path reportFilePath = outputReportingPath.resolve(fileName);
+
+        // Rows are written to a hidden temp file as customers are read from the cursor; the report only
+        // becomes visible under its final name once complete. Created with the default permissions (umask),
+        // which the report keeps once moved, unlike Files.createTempFile that makes it owner-only.
+        Path tempFilePath = null;
+        try {
+            tempFilePath = Files.createFile(outputReportingPath.resolve("." + fileName + ".part"));
+
+            long rows;
+            try (Stream<Customer> customers = customerStorage.streamContracts();
+                 BufferedWriter writer = Files.newBufferedWriter(tempFilePath, StandardCharsets.UTF_8);
+                 CSVWriter csvWriter = new CSVWriter(writer)) {
+                csvWriter.writeNext(HEADER);
+                rows = writeOngoingContracts(customers.iterator(), billedAmounts, csvWriter);
+            }
+
+            if (rows == 0) {
+                logger.info("No ongoing contracts found or no data to report.");
+                return "empty";
+            }
 
-        List<String[]> reportData = new ArrayList<>();
-        reportData.add(new String[]{"contract_id", "sum_billed_activity_amount_euris", "remaining_balance_euris"});
+            if (!this.jobLeaseService.isHeld(lease)) {
+                logger.warn("Lease of the hourly report was taken over by another instance, discarding {}", reportFilePath);
+                return "fenced";
+            }
+            moveIntoPlace(tempFilePath, reportFilePath);
+            this.reportRows.increment(rows);
+            logger.info("Successfully generated report: {} ({} contracts)", reportFilePath, rows);
+            return "success";
+        } catch (IOException e) {
+            logger.error("Error writing report to CSV file {}: ", reportFilePath, e);
+            return "failure";
+        } finally {
+            deleteTempFile(tempFilePath);
+        }
+    }
 
-        for (Customer customer : customers) {
+    static long writeOngoingContracts(Iterator<Customer> customers,
+                                      Map<String, Double> billedAmounts,
+                                      CSVWriter csvWriter) {
+        long rows = 0;
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        while (customers.hasNext()) {
+            Customer customer = customers.next();
             for (Contract contract : customer.contracts) {
                 // Check if contract is ongoing
-                if (contract.end == null || contract.end.isAfter(LocalDate.now().minusDays(1))) { // contract.end is inclusive
-                    List<Activity> activitiesForContract = activityRepository.findByContractId(contract.id);
-                    
-                    double totalActivityBilledAmount = 0.0;
-                    for (Activity activity : activitiesForContract) {
-                        Prestation prestation = prestationMap.get(activity.salesSystemId);
-                        if (prestation != null) {
-                            totalActivityBilledAmount += activity.unitsConsumed * prestation.unitPrice;
-                        } else {
-                            logger.warn("Prestation details not found for salesSystemId: {} during report generation for contract: {}. Activity amount for this will be 0.", activity.salesSystemId, contract.id);
-                        }
-                    }
+                if (contract.end == null || contract.end.isAfter(yesterday)) { // contract.end is inclusive
+                    double totalActivityBilledAmount = billedAmounts.getOrDefault(contract.id, 0.0);
 
                     double contractTotalValue = contract.soldPrestations.stream()
                         .mapToDouble(sp -> sp.totalBilledAmountForUnits)
                         .sum();
-                    
+
                     double remainingBalance = contractTotalValue - totalActivityBilledAmount;
 
-                    reportData.add(new String[]{
+                    csvWriter.writeNext(new String[]{
                         contract.id,
                         String.format("%.2f", totalActivityBilledAmount),
                         String.format("%.2f", remainingBalance)
                     });
+                    rows++;
                 }
             }
         }
+        return rows;
+    }
 
-        if (reportData.size() <= 1) { // Only header
-            logger.info("No ongoing contracts found or no data to report.");
-            return;
+    private void moveIntoPlace(Path tempFilePath, Path reportFilePath) throws IOException {
+        try {
+            Files.move(tempFilePath, reportFilePath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            logger.warn("Atomic move not supported in {}, falling back to a plain move", outputReportingPath);
+            Files.move(tempFilePath, reportFilePath, StandardCopyOption.REPLACE_EXISTING);
         }
+    }
 
-        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
-        String fileName = "report_" + timestamp + ".csv";
-        Path reportFilePath = outputReportingPath.resolve(fileName);
-
-        try (FileWriter writer = new FileWriter(reportFilePath.toFile());
-             CSVWriter csvWriter = new CSVWriter(writer)) {
-            csvWriter.writeAll(reportData);
-            logger.info("Successfully generated report: {}", reportFilePath);
+    private void deleteTempFile(Path tempFilePath) {
+        if (tempFilePath == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tempFilePath);
         } catch (IOException e) {
-            logger.error("Error writing report to CSV file {}: ", reportFilePath, e);
+            logger.warn("Could not delete temporary report file {}", tempFilePath, e);
         }
     }
 }
@@ -0,0 +1,152 @@
+package klee.solution.bulille.pocs.blink.appserver.out.memory;
+
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.middle.CursorPage;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.PageCursor;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.Activity;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.ActivityStorage;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+/**
+ * Activities kept in memory, indexed as in MongoDB : by contract, then sorted by date and id.
+ * Activities are copied in and out : callers never share an instance with the storage.
+ */
+@Component
+@Profile(Profiles.IN_MEMORY)
+public class InMemoryActivityStorage implements ActivityStorage {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryActivityStorage.class);
+
+    private static final ObjectId MIN_ID = new ObjectId(new byte[12]);
+    private static final ObjectId MAX_ID;
+
+    static {
+        byte[] max = new byte[12];
+        Arrays.fill(max, (byte) 0xFF);
+        MAX_ID = new ObjectId(max);
+    }
+
+    private final ConcurrentMap<String, ConcurrentSkipListMap<ActivityKey, Activity>> byContract = new ConcurrentHashMap<>();
+
+    @NonNull
+    @Override
+    public List<Activity> insertAll(@NonNull List<Activity> activities) {
+        for (Activity activity : activities) {
+            if (activity.id == null) {
+                activity.id = new ObjectId();
+            }
+            this.byContract.computeIfAbsent(activity.contractId, contractId -> new ConcurrentSkipListMap<>())
+                    .put(ActivityKey.of(activity), copy(activity));
+        }
+        LOGGER.info("Inserted {} activities", activities.size());
+        return activities;
+    }
+
+    @NonNull
+    @Override
+    public CursorPage<Activity> findByContract(@NonNull String contractId, Optional<LocalDate> from, Optional<LocalDate> to,
+                                               Optional<String> cursor, int size) {
+        Optional<ActivityKey> after = cursor.map(InMemoryActivityStorage::keyAfter);
+        NavigableMap<ActivityKey, Activity> activities = this.range(contractId, from, to);
+        if (after.isPresent()) {
+            activities = activities.tailMap(after.get(), false);
+        }
+        List<Activity> page = activities.values().stream()
+                .limit(size + 1L)
+                .map(InMemoryActivityStorage::copy)
+                .toList();
+
+        String nextCursor = null;
+        if (page.size() > size) {
+            page = page.subList(0, size);
+            Activity last = page.get(size - 1);
+            nextCursor = PageCursor.encode(last.doneOn.toString(), last.id.toHexString());
+        }
+        return new CursorPage<>(page, nextCursor, null);
+    }
+
+    @NonNull
+    @Override
+    public Stream<Activity> streamByContract(@NonNull String contractId, Optional<LocalDate> from, Optional<LocalDate> to) {
+        return this.range(contractId, from, to).values().stream().map(InMemoryActivityStorage::copy);
+    }
+
+    @NonNull
+    @Override
+    public Stream<Activity> streamAll() {
+        return this.byContract.values().stream()
+                .flatMap(activities -> activities.values().stream())
+                .map(InMemoryActivityStorage::copy);
+    }
+
+    private NavigableMap<ActivityKey, Activity> range(String contractId, Optional<LocalDate> from, Optional<LocalDate> to) {
+        NavigableMap<ActivityKey, Activity> activities = this.byContract.getOrDefault(contractId, new ConcurrentSkipListMap<>());
+        if (from.isPresent()) {
+            activities = activities.tailMap(new ActivityKey(from.get(), MIN_ID), true);
+        }
+        if (to.isPresent()) {
+            activities = activities.headMap(new ActivityKey(to.get(), MAX_ID), true);
+        }
+        return activities;
+    }
+
+    private static ActivityKey keyAfter(String cursor) {
+        List<String> after = PageCursor.decode(cursor, 2);
+        try {
+            if (!ObjectId.isValid(after.get(1))) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            return new ActivityKey(LocalDate.parse(after.get(0)), new ObjectId(after.get(1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+        }
+    }
+
+    private static Activity copy(Activity activity) {
+        Activity copy = new Activity();
+        copy.id = activity.id;
+        copy.name = activity.name;
+        copy.salesSystemId = activity.salesSystemId;
+        copy.doneOn = activity.doneOn;
+        copy.contractId = activity.contractId;
+        copy.customerId = activity.customerId;
+        copy.unitsConsumed = activity.unitsConsumed;
+        return copy;
+    }
+
+    /**
+     * Sort key of the activities of a contract, as the {contractId, doneOn, _id} index.
+     */
+    private record ActivityKey(LocalDate doneOn, ObjectId id) implements Comparable<ActivityKey> {
+
+        private static final Comparator<ActivityKey> ORDER = Comparator
+                .comparing(ActivityKey::doneOn, Comparator.nullsFirst(Comparator.naturalOrder()))
+                .thenComparing(ActivityKey::id);
+
+        static ActivityKey of(Activity activity) {
+            return new ActivityKey(activity.doneOn, activity.id);
+        }
+
+        @Override
+        public int compareTo(ActivityKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package klee.solution.bulille.pocs.blink.appserver.out.memory;
+
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.Activity;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.ActivityStorage;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger.ContractLedger;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger.ContractLedgerStorage;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger.LedgerReservation;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.Prestation;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.PrestationStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Contract ledger kept in memory, by ledger id.
+ * Entries are never modified : every change replaces the entry with a new one, in a ConcurrentHashMap.compute, which
+ * makes the quota check and the increment atomic as the conditional update does in MongoDB.
+ * A rebuild replaces the whole map at once ; it holds the write lock, so that no reservation or release is lost
+ * meanwhile, while they hold the read lock. The lock does not cover the activities stored after their reservation :
+ * the rebuild can still miss them (see {@link ContractLedgerStorage#rebuildFromActivities()}).
+ */
+@Component
+@Profile(Profiles.IN_MEMORY)
+public class InMemoryContractLedgerStorage implements ContractLedgerStorage {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryContractLedgerStorage.class);
+
+    private final ActivityStorage activityStorage;
+    private final PrestationStorage prestationStorage;
+    private final ReadWriteLock rebuildLock = new ReentrantReadWriteLock();
+    private volatile ConcurrentMap<String, ContractLedger> ledgers = new ConcurrentHashMap<>();
+
+    public InMemoryContractLedgerStorage(ActivityStorage activityStorage, PrestationStorage prestationStorage) {
+        this.activityStorage = activityStorage;
+        this.prestationStorage = prestationStorage;
+    }
+
+    @NonNull
+    @Override
+    public Optional<ContractLedger> find(@NonNull String contractId, @NonNull String salesSystemId) {
+        return Optional.ofNullable(this.ledgers.get(ContractLedger.idOf(contractId, salesSystemId)));
+    }
+
+    @NonNull
+    @Override
+    public Map<String, ContractLedger> findAll(@NonNull Collection<String> ledgerIds) {
+        Map<String, ContractLedger> found = new HashMap<>();
+        for (String ledgerId : ledgerIds) {
+            ContractLedger ledger = this.ledgers.get(ledgerId);
+            if (ledger != null) {
+                found.put(ledgerId, ledger);
+            }
+        }
+        return found;
+    }
+
+    @NonNull
+    @Override
+    public List<ContractLedger> findByContract(@NonNull String contractId) {
+        return this.ledgers.values().stream()
+                .filter(ledger -> contractId.equals(ledger.contractId))
+                .toList();
+    }
+
+    @NonNull
+    @Override
+    public List<Boolean> reserveAll(@NonNull List<LedgerReservation> reservations) {
+        this.rebuildLock.readLock().lock();
+        try {
+            return this.reserve(reservations);
+        } finally {
+            this.rebuildLock.readLock().unlock();
+        }
+    }
+
+    private List<Boolean> reserve(List<LedgerReservation> reservations) {
+        List<Boolean> reserved = new ArrayList<>(reservations.size());
+        for (LedgerReservation reservation : reservations) {
+            boolean[] accepted = {false};
+            if (reservation.units() <= reservation.maxUnits()) {
+                this.ledgers.compute(reservation.ledgerId(), (ledgerId, ledger) -> {
+                    double consumed = ledger == null ? 0 : ledger.unitsConsumed;
+                    if (consumed > reservation.maxUnits() - reservation.units()) {
+                        return ledger;
+                    }
+                    accepted[0] = true;
+                    return entry(reservation.contractId(), reservation.salesSystemId(),
+                            consumed + reservation.units(),
+                            (ledger == null ? 0 : ledger.billedAmount) + reservation.amount());
+                });
+            }
+            reserved.add(accepted[0]);
+            if (accepted[0]) {
+                LOGGER.info("Reserved {} units ({}) on ledger of contract {} / prestation {}", reservation.units(), reservation.amount(), reservation.contractId(), reservation.salesSystemId());
+            } else {
+                LOGGER.info("Reservation of {} units refused on ledger of contract {} / prestation {} : quota of {} units reached", reservation.units(), reservation.contractId(), reservation.salesSystemId(), reservation.maxUnits());
+            }
+        }
+        return reserved;
+    }
+
+    @Override
+    public void releaseAll(@NonNull List<LedgerReservation> reservations) {
+        this.rebuildLock.readLock().lock();
+        try {
+            for (LedgerReservation reservation : reservations) {
+                this.ledgers.computeIfPresent(reservation.ledgerId(), (ledgerId, ledger) -> entry(ledger.contractId, ledger.salesSystemId,
+                        ledger.unitsConsumed - reservation.units(), ledger.billedAmount - reservation.amount()));
+                LOGGER.warn("Releasing {} units ({}) on ledger of contract {} / prestation {}", reservation.units(), reservation.amount(), reservation.contractId(), reservation.salesSystemId());
+            }
+        } finally {
+            this.rebuildLock.readLock().unlock();
+        }
+    }
+
+    @NonNull
+    @Override
+    public Map<String, Double> billedAmountPerContract() {
+        Map<String, Double> billedAmounts = new HashMap<>();
+        this.ledgers.values().forEach(ledger -> billedAmounts.merge(ledger.contractId, ledger.billedAmount, Double::sum));
+        return billedAmounts;
+    }
+
+    /**
+     * The ledger starts empty along with the activities : there is never anything to rebuild at startup.
+     */
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public long rebuildFromActivities() {
+        LOGGER.info("Rebuilding the in-memory ledger from the activities");
+        this.rebuildLock.writeLock().lock();
+        try {
+            // units summed per entry first : the billed amount is the units times the unit price of the prestation
+            Map<String, ContractLedger> units = new HashMap<>();
+            try (Stream<Activity> activities = this.activityStorage.streamAll()) {
+                activities.forEach(activity -> units.merge(ContractLedger.idOf(activity.contractId, activity.salesSystemId),
+                        entry(activity.contractId, activity.salesSystemId, activity.unitsConsumed, 0),
+                        (ledger, added) -> entry(ledger.contractId, ledger.salesSystemId, ledger.unitsConsumed + added.unitsConsumed, 0)));
+            }
+            Map<String, Prestation> prestations = this.prestationStorage.findAll(
+                    units.values().stream().map(ledger -> ledger.salesSystemId).distinct().toList());
+
+            ConcurrentMap<String, ContractLedger> rebuilt = new ConcurrentHashMap<>();
+            units.forEach((ledgerId, ledger) -> {
+                Prestation prestation = prestations.get(ledger.salesSystemId);
+                rebuilt.put(ledgerId, entry(ledger.contractId, ledger.salesSystemId, ledger.unitsConsumed,
+                        prestation == null ? 0 : ledger.unitsConsumed * prestation.unitPrice));
+            });
+            this.ledgers = rebuilt;
+            LOGGER.info("Rebuilt the in-memory ledger : {} entries", rebuilt.size());
+            return rebuilt.size();
+        } finally {
+            this.rebuildLock.writeLock().unlock();
+        }
+    }
+
+    private static ContractLedger entry(String contractId, String salesSystemId, double unitsConsumed, double billedAmount) {
+        ContractLedger ledger = new ContractLedger();
+        ledger.id = ContractLedger.idOf(contractId, salesSystemId);
+        ledger.contractId = contractId;
+        ledger.salesSystemId = salesSystemId;
+        ledger.unitsConsumed = unitsConsumed;
+        ledger.billedAmount = billedAmount;
+        return ledger;
+    }
+}
@@ -0,0 +1,299 @@
+package klee.solution.bulille.pocs.blink.appserver.out.memory;
+
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.middle.CursorPage;
+import klee.solution.bulille.pocs.blink.appserver.middle.CustomerView;
+import klee.solution.bulille.pocs.blink.appserver.middle.NameSearchMode;
+import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.PageCursor;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Contract;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.CustomerNames;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.CustomerStorage;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.SoldPrestation;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Customers kept in memory, with the same indexes as in MongoDB : by id (sorted, for the keyset pagination), by
+ * contract id, and by name token and suffix (sorted, for the prefix searches).
+ * <p>
+ * Writes take a write lock, reads a read lock. Customers are copied in and out : callers never share an instance
+ * with the storage, as with a database.
+ */
+@Component
+@Profile(Profiles.IN_MEMORY)
+public class InMemoryCustomerStorage implements CustomerStorage {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryCustomerStorage.class);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<ObjectId, Customer> customers = new TreeMap<>();
+    private final Map<String, ObjectId> customerOfContract = new HashMap<>();
+    private final NavigableMap<String, Set<ObjectId>> byNameToken = new TreeMap<>();
+    private final NavigableMap<String, Set<ObjectId>> byNameSuffix = new TreeMap<>();
+
+    @Override
+    public Optional<Customer> find(CustomerId customerId) {
+        return this.read(() -> Optional.ofNullable(this.customers.get(customerId.toOID()))
+                .map(customer -> copy(customer, CustomerView.FULL)));
+    }
+
+    @Override
+    public Map<CustomerId, Customer> findContracts(Collection<CustomerId> customerIds) {
+        return this.read(() -> {
+            Map<CustomerId, Customer> found = new HashMap<>();
+            for (CustomerId customerId : customerIds) {
+                Customer customer = this.customers.get(customerId.toOID());
+                if (customer != null) {
+                    Customer contracts = new Customer();
+                    contracts.id = customer.id;
+                    contracts.contracts = copyContracts(customer.contracts, CustomerView.FULL);
+                    found.put(new CustomerId(customer.id.toHexString()), contracts);
+                }
+            }
+            return found;
+        });
+    }
+
+    @Override
+    public Optional<Customer> findByContract(String contractId) {
+        return this.read(() -> Optional.ofNullable(this.customerOfContract.get(contractId))
+                .map(this.customers::get)
+                .map(customer -> {
+                    Customer holder = new Customer();
+                    holder.id = customer.id;
+                    holder.contracts = copyContracts(customer.contracts.stream()
+                            .filter(contract -> contractId.equals(contract.id))
+                            .toList(), CustomerView.FULL);
+                    return holder;
+                }));
+    }
+
+    @Override
+    public Page<Customer> searchByName(String nameQuery, NameSearchMode mode, Pageable pageable, CustomerView view) {
+        return this.read(() -> {
+            NavigableSet<ObjectId> ids = this.matching(nameQuery, mode);
+            List<Customer> page = ids.stream()
+                    .skip(pageable.getOffset())
+                    .limit(pageable.getPageSize())
+                    .map(id -> copy(this.customers.get(id), view))
+                    .toList();
+            return new PageImpl<>(page, pageable, ids.size());
+        });
+    }
+
+    @Override
+    public CursorPage<Customer> searchByName(String nameQuery, NameSearchMode mode, Optional<String> cursor, int size,
+                                             boolean includeTotal, CustomerView view) {
+        Optional<ObjectId> after = cursor.map(InMemoryCustomerStorage::idAfter);
+        return this.read(() -> {
+            NavigableSet<ObjectId> ids = this.matching(nameQuery, mode);
+            List<Customer> page = (after.isPresent() ? ids.tailSet(after.get(), false) : ids).stream()
+                    .limit(size + 1L)
+                    .map(id -> copy(this.customers.get(id), view))
+                    .toList();
+            String nextCursor = null;
+            if (page.size() > size) {
+                page = page.subList(0, size);
+                nextCursor = PageCursor.encode(page.get(size - 1).id.toHexString());
+            }
+            return new CursorPage<>(page, nextCursor, includeTotal ? (long) ids.size() : null);
+        });
+    }
+
+    @Override
+    public Stream<Customer> streamContracts() {
+        List<Customer> snapshot = this.read(() -> this.customers.values().stream()
+                .map(customer -> {
+                    Customer contracts = new Customer();
+                    contracts.id = customer.id;
+                    contracts.contracts = copyContracts(customer.contracts, CustomerView.FULL);
+                    return contracts;
+                })
+                .toList());
+        return snapshot.stream();
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        if (customer.id == null) {
+            customer.id = new ObjectId();
+        }
+        CustomerNames.index(customer);
+        Customer stored = copy(customer, CustomerView.FULL);
+        stored.nameTokens = List.copyOf(customer.nameTokens);
+        stored.nameSuffixes = List.copyOf(customer.nameSuffixes);
+
+        this.lock.writeLock().lock();
+        try {
+            Customer previous = this.customers.put(stored.id, stored);
+            if (previous != null) {
+                this.unindex(previous);
+            }
+            this.index(stored);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        LOGGER.info("Customer {} saved", stored.id);
+        return customer;
+    }
+
+    @Override
+    public Optional<Customer> pushContract(CustomerId customerId, Contract contract) {
+        this.lock.writeLock().lock();
+        try {
+            Customer customer = this.customers.get(customerId.toOID());
+            if (customer == null || customer.contracts.stream().anyMatch(existing -> overlaps(existing, contract))) {
+                return Optional.empty();
+            }
+            customer.contracts.add(copyContract(contract, CustomerView.FULL));
+            this.customerOfContract.put(contract.id, customer.id);
+            LOGGER.info("Contract {} ({} from {} to {}) added to customer {}", contract.id, contract.type, contract.start, contract.end, customerId.id());
+            return Optional.of(copy(customer, CustomerView.FULL));
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Customers are indexed as they are saved.
+     */
+    @Override
+    public long indexMissingNames() {
+        return 0;
+    }
+
+    /**
+     * Same rule as the update filter of the MongoDB storage.
+     */
+    private static boolean overlaps(Contract existing, Contract contract) {
+        boolean startsBeforeEnd = contract.end == null || !existing.start.isAfter(contract.end);
+        boolean endsAfterStart = existing.end == null || !existing.end.isBefore(contract.start);
+        return startsBeforeEnd && endsAfterStart;
+    }
+
+    /**
+     * @return the ids of the customers whose names match every word of the query, all ids if there is no query,
+     * none if the query is not blank but has no word
+     */
+    private NavigableSet<ObjectId> matching(String nameQuery, NameSearchMode mode) {
+        if (nameQuery == null || nameQuery.isBlank()) {
+            return this.customers.navigableKeySet();
+        }
+        List<String> words = CustomerNames.searchWords(nameQuery, mode);
+        if (words.isEmpty()) {
+            return new TreeSet<>();
+        }
+        NavigableMap<String, Set<ObjectId>> index = mode == NameSearchMode.PREFIX ? this.byNameToken : this.byNameSuffix;
+        NavigableSet<ObjectId> ids = null;
+        for (String word : words) {
+            NavigableSet<ObjectId> matches = new TreeSet<>();
+            // every key starting with the word
+            index.subMap(word, true, word + Character.MAX_VALUE, false).values().forEach(matches::addAll);
+            if (ids == null) {
+                ids = matches;
+            } else {
+                ids.retainAll(matches);
+            }
+        }
+        return ids;
+    }
+
+    private void index(Customer customer) {
+        customer.nameTokens.forEach(token -> this.byNameToken.computeIfAbsent(token, key -> new HashSet<>()).add(customer.id));
+        customer.nameSuffixes.forEach(suffix -> this.byNameSuffix.computeIfAbsent(suffix, key -> new HashSet<>()).add(customer.id));
+        customer.contracts.forEach(contract -> this.customerOfContract.put(contract.id, customer.id));
+    }
+
+    private void unindex(Customer customer) {
+        customer.nameTokens.forEach(token -> removeFrom(this.byNameToken, token, customer.id));
+        customer.nameSuffixes.forEach(suffix -> removeFrom(this.byNameSuffix, suffix, customer.id));
+        customer.contracts.forEach(contract -> this.customerOfContract.remove(contract.id));
+    }
+
+    private static void removeFrom(NavigableMap<String, Set<ObjectId>> index, String key, ObjectId id) {
+        Set<ObjectId> ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        this.lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private static ObjectId idAfter(String cursor) {
+        String id = PageCursor.decode(cursor, 1).get(0);
+        if (!ObjectId.isValid(id)) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return new ObjectId(id);
+    }
+
+    /**
+     * The name search keys are never copied out, as they are never loaded from MongoDB.
+     */
+    private static Customer copy(Customer customer, CustomerView view) {
+        Customer copy = new Customer();
+        copy.id = customer.id;
+        copy.firstName = customer.firstName;
+        copy.givenName = customer.givenName;
+        copy.dateOfBirth = customer.dateOfBirth;
+        copy.contracts = copyContracts(customer.contracts, view);
+        return copy;
+    }
+
+    private static List<Contract> copyContracts(List<Contract> contracts, CustomerView view) {
+        List<Contract> copies = new ArrayList<>();
+        if (contracts != null) {
+            contracts.forEach(contract -> copies.add(copyContract(contract, view)));
+        }
+        return copies;
+    }
+
+    /**
+     * The summary view leaves the sold prestations out, as the MongoDB projection does.
+     */
+    private static Contract copyContract(Contract contract, CustomerView view) {
+        Contract copy = new Contract();
+        copy.id = contract.id;
+        copy.type = contract.type;
+        copy.start = contract.start;
+        copy.end = contract.end;
+        if (view == CustomerView.FULL && contract.soldPrestations != null) {
+            copy.soldPrestations = contract.soldPrestations.stream()
+                    .map(sold -> new SoldPrestation(sold.salesSystemId, sold.units, sold.totalBilledAmountForUnits))
+                    .toList();
+        }
+        return copy;
+    }
+}
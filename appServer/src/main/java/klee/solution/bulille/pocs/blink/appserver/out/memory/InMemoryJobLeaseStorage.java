@@ -0,0 +1,78 @@
+package klee.solution.bulille.pocs.blink.appserver.out.memory;
+
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.lease.JobLease;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.lease.JobLeaseStorage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Job leases kept in memory : only exclusive within this instance, which is all there is with the inmemory profile.
+ * Same tokens as in MongoDB : growing, and never below the acquisition time in ms.
+ */
+@Component
+@Profile(Profiles.IN_MEMORY)
+public class InMemoryJobLeaseStorage implements JobLeaseStorage {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryJobLeaseStorage.class);
+
+    private final Map<String, JobLease> leases = new HashMap<>();
+
+    @Override
+    @NonNull
+    public synchronized Optional<JobLease> acquire(@NonNull String job, @NonNull String owner, @NonNull Duration atMost) {
+        Instant now = Instant.now();
+        JobLease current = this.leases.get(job);
+        if (current != null && current.expiresAt.isAfter(now)) {
+            return Optional.empty();
+        }
+        JobLease lease = new JobLease();
+        lease.job = job;
+        lease.owner = owner;
+        lease.token = Math.max(current == null ? 1 : current.token + 1, now.toEpochMilli());
+        lease.acquiredAt = now;
+        lease.expiresAt = now.plus(atMost);
+        this.leases.put(job, lease);
+        LOGGER.info("Lease of {} acquired by {} (token {}) until {}", job, owner, lease.token, lease.expiresAt);
+        return Optional.of(copy(lease));
+    }
+
+    @Override
+    public synchronized boolean isHeld(@NonNull JobLease lease) {
+        JobLease current = this.leases.get(lease.job);
+        return current != null && current.token == lease.token && current.owner.equals(lease.owner)
+                && current.expiresAt.isAfter(Instant.now());
+    }
+
+    @Override
+    public synchronized void release(@NonNull JobLease lease, @NonNull Duration atLeast) {
+        JobLease current = this.leases.get(lease.job);
+        if (current == null || current.token != lease.token || !current.owner.equals(lease.owner)) {
+            LOGGER.warn("Lease of {} (token {}) was taken over before being released", lease.job, lease.token);
+            return;
+        }
+        Instant keptUntil = current.acquiredAt.plus(atLeast);
+        Instant now = Instant.now();
+        current.expiresAt = keptUntil.isAfter(now) ? keptUntil : now;
+        LOGGER.info("Lease of {} released by {} (token {})", lease.job, lease.owner, lease.token);
+    }
+
+    private static JobLease copy(JobLease lease) {
+        JobLease copy = new JobLease();
+        copy.job = lease.job;
+        copy.owner = lease.owner;
+        copy.token = lease.token;
+        copy.acquiredAt = lease.acquiredAt;
+        copy.expiresAt = lease.expiresAt;
+        return copy;
+    }
+}
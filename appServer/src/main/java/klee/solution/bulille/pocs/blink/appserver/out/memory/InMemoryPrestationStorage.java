@@ -0,0 +1,70 @@
+package klee.solution.bulille.pocs.blink.appserver.out.memory;
+
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.Prestation;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.PrestationStorage;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.PrestationWriteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Prestations kept in memory, by salesSystemId ; copied in and out.
+ */
+@Component
+@Profile(Profiles.IN_MEMORY)
+public class InMemoryPrestationStorage implements PrestationStorage {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryPrestationStorage.class);
+
+    private final ConcurrentMap<String, Prestation> prestations = new ConcurrentHashMap<>();
+
+    @NonNull
+    @Override
+    public Optional<Prestation> find(@NonNull String salesSystemId) {
+        return Optional.ofNullable(this.prestations.get(salesSystemId)).map(InMemoryPrestationStorage::copy);
+    }
+
+    @NonNull
+    @Override
+    public Map<String, Prestation> findAll(@NonNull Collection<String> salesSystemIds) {
+        Map<String, Prestation> found = new HashMap<>();
+        for (String salesSystemId : salesSystemIds) {
+            Prestation prestation = this.prestations.get(salesSystemId);
+            if (prestation != null) {
+                found.put(salesSystemId, copy(prestation));
+            }
+        }
+        return found;
+    }
+
+    @NonNull
+    @Override
+    public PrestationWriteResult upsertAll(@NonNull Collection<Prestation> prestations) {
+        int inserted = 0;
+        for (Prestation prestation : prestations) {
+            if (this.prestations.put(prestation.salesSystemId, copy(prestation)) == null) {
+                inserted++;
+            }
+        }
+        LOGGER.info("Upserted {} prestations", prestations.size());
+        return new PrestationWriteResult(inserted, prestations.size() - inserted, 0);
+    }
+
+    private static Prestation copy(Prestation prestation) {
+        Prestation copy = new Prestation();
+        copy.salesSystemId = prestation.salesSystemId;
+        copy.name = prestation.name;
+        copy.unitPrice = prestation.unitPrice;
+        return copy;
+    }
+}
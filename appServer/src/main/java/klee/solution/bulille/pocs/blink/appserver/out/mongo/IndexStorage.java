@@ -0,0 +1,24 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo;
+
+import org.springframework.lang.NonNull;
+
+import java.util.List;
+
+/**
+ * The indexes of the database.
+ */
+public interface IndexStorage {
+
+    /**
+     * Creates the declared indexes that do not exist yet ; existing ones are left as they are.
+     *
+     * @return the number of declared indexes
+     */
+    int ensureDeclaredIndexes();
+
+    /**
+     * @return the hot queries whose winning plan is a collection scan
+     */
+    @NonNull
+    List<String> collectionScans();
+}
@@ -0,0 +1,113 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo;
+
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.Activity;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger.ContractLedger;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.lang.NonNull;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Creates the indexes declared on the documents (@Indexed, @CompoundIndex...) and checks that the hot queries use them.
+ */
+@Component
+@Profile(Profiles.NOT_IN_MEMORY)
+public class MongoIndexes implements IndexStorage {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoIndexes.class);
+
+    /**
+     * The queries run on every activity or contract lookup ; they MUST be served by an index.
+     * Only the shape of the filters matters, the values are placeholders.
+     */
+    private static final List<HotQuery> HOT_QUERIES = List.of(
+            new HotQuery("activities of a contract and prestation", Activity.class,
+                    new Document("contractId", "").append("salesSystemId", "")),
+            new HotQuery("activities of a contract", Activity.class,
+                    new Document("contractId", "")),
+            new HotQuery("activities of a contract by date", Activity.class,
+                    new Document("contractId", "").append("doneOn", new Document("$gte", new Date(0)))),
+            new HotQuery("customer of a contract", Customer.class,
+                    new Document("contracts._id", "")), // Contract.id is stored as _id
+            new HotQuery("ledger entries of a contract", ContractLedger.class,
+                    new Document("contractId", "")),
+            new HotQuery("customers by name prefix", Customer.class,
+                    new Document("nameTokens", new Document("$regex", "^a"))),
+            new HotQuery("customers by name part", Customer.class,
+                    new Document("nameSuffixes", new Document("$regex", "^a"))));
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoIndexes(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public int ensureDeclaredIndexes() {
+        MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext = this.mongoTemplate.getConverter().getMappingContext();
+        IndexResolver indexResolver = IndexResolver.create(mappingContext);
+
+        int count = 0;
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities()) {
+            if (!entity.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                continue;
+            }
+            for (IndexDefinition index : indexResolver.resolveIndexFor(entity.getTypeInformation())) {
+                String name = this.mongoTemplate.indexOps(entity.getType()).createIndex(index);
+                LOGGER.info("Index {} on '{}' : {}", name, entity.getCollection(), index.getIndexKeys().toJson());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @NonNull
+    @Override
+    public List<String> collectionScans() {
+        List<String> collectionScans = new ArrayList<>();
+        for (HotQuery hotQuery : HOT_QUERIES) {
+            String collection = this.mongoTemplate.getCollectionName(hotQuery.type());
+            Document explain = this.mongoTemplate.getDb().runCommand(new Document("explain",
+                    new Document("find", collection).append("filter", hotQuery.filter()))
+                    .append("verbosity", "queryPlanner"));
+            Object winningPlan = explain.get("queryPlanner", Document.class).get("winningPlan");
+            if (hasStage(winningPlan, "COLLSCAN")) {
+                collectionScans.add(hotQuery.name() + " (" + collection + " " + hotQuery.filter().toJson() + ")");
+            }
+        }
+        return collectionScans;
+    }
+
+    /**
+     * Walks a query plan ; the stages are nested in inputStage(s), or in queryPlan for the slot-based engine.
+     */
+    private static boolean hasStage(Object plan, String stage) {
+        if (plan instanceof Document document) {
+            if (stage.equals(document.get("stage"))) {
+                return true;
+            }
+            return document.values().stream().anyMatch(value -> hasStage(value, stage));
+        }
+        if (plan instanceof List<?> list) {
+            return list.stream().anyMatch(value -> hasStage(value, stage));
+        }
+        return false;
+    }
+
+    private record HotQuery(String name, Class<?> type, Document filter) {
+    }
+}
@@ -0,0 +1,38 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque continuation token of a keyset pagination : the sort key values of the last item of a page, url-safe encoded.
+ * The next page is made of the items strictly after these values ; no item is skipped server-side.
+ */
+public final class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private PageCursor() {
+    }
+
+    public static String encode(String... sortKeyValues) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.join(SEPARATOR, sortKeyValues).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode(String...)} with as many values
+     */
+    public static List<String> decode(String token, int sortKeyCount) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            List<String> values = List.of(decoded.split("\\" + SEPARATOR, -1));
+            if (values.size() != sortKeyCount) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
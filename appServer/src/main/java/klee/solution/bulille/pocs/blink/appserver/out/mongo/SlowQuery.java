@@ -0,0 +1,46 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * A MongoDB command that took longer than the threshold.
+ *
+ * @param id           sequence number, in order of recording
+ * @param caller       first method of the app found in the calling stack (e.g. MongoCustomerStorage.searchByName),
+ *                     'unknown' when the command ran on a driver thread
+ * @param command      the command sent, as JSON (truncated when too long)
+ * @param docsReturned documents in the reply (first batch only for a cursor), or documents matched by a write
+ * @param explain      the plan of the command, when explain is enabled and it could be run
+ */
+public record SlowQuery(long id,
+                        Instant at,
+                        String database,
+                        String collection,
+                        String commandName,
+                        String caller,
+                        long durationMillis,
+                        boolean failed,
+                        String command,
+                        Optional<Long> docsReturned,
+                        Optional<Explain> explain) {
+
+    public SlowQuery withExplain(Explain explain) {
+        return new SlowQuery(this.id, this.at, this.database, this.collection, this.commandName, this.caller,
+                this.durationMillis, this.failed, this.command, this.docsReturned, Optional.of(explain));
+    }
+
+    /**
+     * Execution stats of the winning plan.
+     *
+     * @param stages      stages of the winning plan, from the root (e.g. FETCH > IXSCAN, or COLLSCAN)
+     * @param winningPlan the winning plan, as JSON (truncated when too long)
+     */
+    public record Explain(long docsExamined,
+                          long keysExamined,
+                          long docsReturned,
+                          long executionTimeMillis,
+                          String stages,
+                          String winningPlan) {
+    }
+}
@@ -0,0 +1,58 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo;
+
+import klee.solution.bulille.pocs.blink.appserver.config.SlowQueryProperties;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded log of the last slow MongoDB commands : once full, each new command drops the oldest one.
+ */
+@Component
+public class SlowQueryLog {
+
+    private final Map<Long, SlowQuery> slowQueries;
+
+    public SlowQueryLog(SlowQueryProperties properties) {
+        int capacity = properties.capacity();
+        if (capacity < 1) {
+            throw new IllegalArgumentException("project.mongo.slow-queries.capacity must be positive, got " + capacity);
+        }
+        this.slowQueries = new LinkedHashMap<>(capacity * 2) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SlowQuery> eldest) {
+                return this.size() > capacity;
+            }
+        };
+    }
+
+    public synchronized void add(@NonNull SlowQuery slowQuery) {
+        this.slowQueries.put(slowQuery.id(), slowQuery);
+    }
+
+    /**
+     * Replaces the recorded command with the same id ; does nothing if it was dropped meanwhile.
+     */
+    public synchronized void update(@NonNull SlowQuery slowQuery) {
+        this.slowQueries.replace(slowQuery.id(), slowQuery);
+    }
+
+    /**
+     * @return the recorded commands, most recent first
+     */
+    @NonNull
+    public synchronized List<SlowQuery> recent() {
+        List<SlowQuery> recent = new ArrayList<>(this.slowQueries.values());
+        Collections.reverse(recent);
+        return recent;
+    }
+
+    public synchronized void clear() {
+        this.slowQueries.clear();
+    }
+}
@@ -0,0 +1,272 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.config.SlowQueryProperties;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the MongoDB commands slower than project.mongo.slow-queries.threshold in the {@link SlowQueryLog}, without
+ * enabling the database profiler.
+ * <p>
+ * Only reads and writes are tracked (find, aggregate, count, distinct, getMore, findAndModify, update, delete,
+ * insert) ; their command is kept until the reply comes, without the inserted documents and with only the first
+ * statement of a bulk update or delete. The caller is the first method of the app in the stack of the thread that
+ * got the reply : with the blocking driver, it is the storage method that sent the command.
+ * <p>
+ * When explain is enabled, each slow command is explained (executionStats) on a background thread, which shows the
+ * documents and keys examined and whether an index was used ; commands that cannot be explained (getMore, insert) and
+ * slow commands arriving while the explain queue is full are recorded without plan.
+ */
+@Component
+@Profile(Profiles.NOT_IN_MEMORY)
+public class SlowQueryProfiler implements CommandListener, MongoClientSettingsBuilderCustomizer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowQueryProfiler.class);
+
+    private static final Set<String> TRACKED_COMMANDS = Set.of("find", "aggregate", "count", "distinct", "getMore",
+            "findAndModify", "update", "delete", "insert");
+    private static final Set<String> EXPLAINABLE_COMMANDS = Set.of("find", "aggregate", "count", "distinct",
+            "findAndModify", "update", "delete");
+    /** generic fields of a command, that explain refuses or that only clutter the log */
+    private static final Set<String> GENERIC_FIELDS = Set.of("$db", "lsid", "$clusterTime", "$readPreference",
+            "txnNumber", "autocommit", "startTransaction", "readConcern", "apiVersion", "apiStrict", "apiDeprecationErrors");
+    private static final Map<String, String> BULK_FIELDS = Map.of("update", "updates", "delete", "deletes");
+
+    private static final JsonWriterSettings JSON = JsonWriterSettings.builder()
+            .outputMode(JsonMode.RELAXED)
+            .maxLength(4000)
+            .build();
+    private static final String APP_PACKAGE = "klee.solution.bulille.pocs.blink.appserver.";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private static final String UNKNOWN_CALLER = "unknown";
+
+    private final SlowQueryProperties properties;
+    private final long thresholdNanos;
+    private final SlowQueryLog slowQueryLog;
+    private final ObjectProvider<MongoClient> mongoClient;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong sequence = new AtomicLong();
+    /** commands sent and not answered yet, by request id */
+    private final Map<Integer, Started> started = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16),
+            Thread.ofPlatform().name("slow-query-explain").daemon().factory(),
+            new ThreadPoolExecutor.DiscardPolicy());
+
+    public SlowQueryProfiler(SlowQueryProperties properties, SlowQueryLog slowQueryLog,
+                             ObjectProvider<MongoClient> mongoClient, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.thresholdNanos = properties.threshold().toNanos();
+        this.slowQueryLog = slowQueryLog;
+        this.mongoClient = mongoClient;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void customize(MongoClientSettings.Builder clientSettingsBuilder) {
+        if (this.properties.enabled()) {
+            LOGGER.info("Recording MongoDB commands slower than {} (explain: {})", this.properties.threshold(), this.properties.explain());
+            clientSettingsBuilder.addCommandListener(this);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.explainer.shutdownNow();
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (TRACKED_COMMANDS.contains(event.getCommandName())) {
+            this.started.put(event.getRequestId(), new Started(summary(event.getCommandName(), event.getCommand())));
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Started command = this.started.remove(event.getRequestId());
+        long elapsed = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        if (command != null && elapsed >= this.thresholdNanos) {
+            this.record(event.getDatabaseName(), event.getCommandName(), command, elapsed, false,
+                    docsReturned(event.getCommandName(), event.getResponse()));
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Started command = this.started.remove(event.getRequestId());
+        long elapsed = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        if (command != null && elapsed >= this.thresholdNanos) {
+            this.record(event.getDatabaseName(), event.getCommandName(), command, elapsed, true, Optional.empty());
+        }
+    }
+
+    private void record(String database, String commandName, Started command, long elapsedNanos, boolean failed,
+                        Optional<Long> docsReturned) {
+        String collection = collectionOf(commandName, command.command());
+        SlowQuery slowQuery = new SlowQuery(this.sequence.getAndIncrement(), Instant.now(), database, collection,
+                commandName, callerOf(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), failed,
+                command.command().toJson(JSON), docsReturned, Optional.empty());
+        this.slowQueryLog.add(slowQuery);
+        Counter.builder("mongodb.slow.commands")
+                .description("MongoDB commands slower than project.mongo.slow-queries.threshold")
+                .tag("collection", collection)
+                .tag("command", commandName)
+                .register(this.meterRegistry)
+                .increment();
+        LOGGER.warn("Slow MongoDB command : {} on {} from {} took {}ms", commandName, collection, slowQuery.caller(), slowQuery.durationMillis());
+
+        if (this.properties.explain() && !failed && EXPLAINABLE_COMMANDS.contains(commandName)) {
+            this.explainer.execute(() -> this.explain(slowQuery, command.command()));
+        }
+    }
+
+    private void explain(SlowQuery slowQuery, BsonDocument command) {
+        BsonDocument explainCommand = new BsonDocument("explain", command)
+                .append("verbosity", new BsonString("executionStats"));
+        try {
+            BsonDocument plan = this.mongoClient.getObject()
+                    .getDatabase(slowQuery.database())
+                    .runCommand(explainCommand, BsonDocument.class);
+            this.slowQueryLog.update(slowQuery.withExplain(explainOf(plan)));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not explain slow MongoDB command #{} ({} on {})", slowQuery.id(), slowQuery.commandName(), slowQuery.collection(), e);
+        }
+    }
+
+    /**
+     * @return a copy of the command, without the generic fields, the inserted documents and all but the first
+     * statement of a bulk write ; the event's command is only valid during the callback
+     */
+    static BsonDocument summary(String commandName, BsonDocument command) {
+        BsonDocument summary = new BsonDocument();
+        for (Map.Entry<String, BsonValue> field : command.entrySet()) {
+            String name = field.getKey();
+            if (GENERIC_FIELDS.contains(name)) {
+                continue;
+            }
+            if ("insert".equals(commandName) && "documents".equals(name) && field.getValue().isArray()) {
+                summary.append("documents", new BsonString(field.getValue().asArray().size() + " documents"));
+            } else if (name.equals(BULK_FIELDS.get(commandName)) && field.getValue().isArray() && !field.getValue().asArray().isEmpty()) {
+                summary.append(name, new BsonArray(List.of(field.getValue().asArray().get(0))));
+            } else {
+                summary.append(name, field.getValue());
+            }
+        }
+        return summary.clone();
+    }
+
+    private static String collectionOf(String commandName, BsonDocument command) {
+        BsonValue collection = command.get("getMore".equals(commandName) ? "collection" : commandName);
+        return collection != null && collection.isString() ? collection.asString().getValue() : "";
+    }
+
+    private static Optional<Long> docsReturned(String commandName, BsonDocument response) {
+        return switch (commandName) {
+            case "find", "aggregate" -> batchSize(response, "firstBatch");
+            case "getMore" -> batchSize(response, "nextBatch");
+            case "count", "update", "delete", "insert" -> response.isNumber("n")
+                    ? Optional.of(response.getNumber("n").longValue()) : Optional.empty();
+            case "distinct" -> response.isArray("values")
+                    ? Optional.of((long) response.getArray("values").size()) : Optional.empty();
+            case "findAndModify" -> Optional.of(response.isDocument("value") ? 1L : 0L);
+            default -> Optional.empty();
+        };
+    }
+
+    private static Optional<Long> batchSize(BsonDocument response, String batch) {
+        if (!response.isDocument("cursor") || !response.getDocument("cursor").isArray(batch)) {
+            return Optional.empty();
+        }
+        return Optional.of((long) response.getDocument("cursor").getArray(batch).size());
+    }
+
+    static SlowQuery.Explain explainOf(BsonDocument explain) {
+        BsonDocument root = explain;
+        // an aggregation not fully pushed down to the query layer explains its $cursor stage
+        if (explain.isArray("stages") && !explain.getArray("stages").isEmpty()
+                && explain.getArray("stages").get(0).asDocument().isDocument("$cursor")) {
+            root = explain.getArray("stages").get(0).asDocument().getDocument("$cursor");
+        }
+        BsonDocument stats = root.isDocument("executionStats") ? root.getDocument("executionStats") : new BsonDocument();
+        BsonDocument winningPlan = root.isDocument("queryPlanner") && root.getDocument("queryPlanner").isDocument("winningPlan")
+                ? root.getDocument("queryPlanner").getDocument("winningPlan") : new BsonDocument();
+        return new SlowQuery.Explain(
+                longOf(stats, "totalDocsExamined"),
+                longOf(stats, "totalKeysExamined"),
+                longOf(stats, "nReturned"),
+                longOf(stats, "executionTimeMillis"),
+                stagesOf(winningPlan),
+                winningPlan.toJson(JSON));
+    }
+
+    /**
+     * @return the stages of the plan, from the root down its first input (e.g. FETCH > IXSCAN)
+     */
+    private static String stagesOf(BsonDocument plan) {
+        List<String> stages = new ArrayList<>();
+        // plans run by the slot based engine wrap the classic plan
+        BsonDocument stage = plan.isDocument("queryPlan") ? plan.getDocument("queryPlan") : plan;
+        while (stage != null && stage.isString("stage")) {
+            stages.add(stage.getString("stage").getValue());
+            if (stage.isDocument("inputStage")) {
+                stage = stage.getDocument("inputStage");
+            } else if (stage.isArray("inputStages") && !stage.getArray("inputStages").isEmpty()) {
+                stage = stage.getArray("inputStages").get(0).asDocument();
+            } else {
+                stage = null;
+            }
+        }
+        return String.join(" > ", stages);
+    }
+
+    private static long longOf(BsonDocument document, String field) {
+        return document.isNumber(field) ? document.getNumber(field).longValue() : 0;
+    }
+
+    private static String callerOf() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(APP_PACKAGE)
+                        && !frame.getClassName().equals(SlowQueryProfiler.class.getName())
+                        && !frame.getClassName().contains("$$"))
+                .findFirst()
+                .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1) + "." + frame.getMethodName())
+                .orElse(UNKNOWN_CALLER));
+    }
+
+    private record Started(BsonDocument command) {
+    }
+}
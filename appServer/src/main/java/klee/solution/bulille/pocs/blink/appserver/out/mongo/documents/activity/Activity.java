@@ -2,11 +2,16 @@ package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity;
 
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDate;
 
 @Document("activity")
+// serves findByContractIdAndSalesSystemId, and findByContractId as a prefix
+@CompoundIndex(name = "contractId_salesSystemId", def = "{'contractId': 1, 'salesSystemId': 1}")
+// serves the listing of the activities of a contract, by date range and keyset page
+@CompoundIndex(name = "contractId_doneOn_id", def = "{'contractId': 1, 'doneOn': 1, '_id': 1}")
 public class Activity {
 
     @Id
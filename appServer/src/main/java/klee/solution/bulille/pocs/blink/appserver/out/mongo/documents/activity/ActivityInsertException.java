@@ -0,0 +1,19 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity;
+
+/**
+ * Thrown when an insertion of activities failed part way : the activities are inserted in order, the first
+ * {@link #insertedCount()} ones are stored, the others are not.
+ */
+public class ActivityInsertException extends RuntimeException {
+
+    private final int insertedCount;
+
+    public ActivityInsertException(int insertedCount, RuntimeException cause) {
+        super("Only " + insertedCount + " activities were inserted: " + cause.getMessage(), cause);
+        this.insertedCount = insertedCount;
+    }
+
+    public int insertedCount() {
+        return this.insertedCount;
+    }
+}
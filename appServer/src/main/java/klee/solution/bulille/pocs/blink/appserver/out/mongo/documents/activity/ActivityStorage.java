@@ -0,0 +1,48 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity;
+
+import klee.solution.bulille.pocs.blink.appserver.middle.CursorPage;
+import org.springframework.lang.NonNull;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Storage of the activities ; in MongoDB ({@link MongoActivityStorage}), or in memory with the inmemory profile.
+ */
+public interface ActivityStorage {
+
+    /**
+     * Inserts the activities in order.
+     *
+     * @return the inserted activities, with their id
+     * @throws ActivityInsertException if only the first activities were inserted ; any other exception leaves it
+     * unknown which ones were
+     */
+    @NonNull
+    List<Activity> insertAll(@NonNull List<Activity> activities);
+
+    /**
+     * One page of the activities of a contract done in [from, to], sorted by date then id.
+     *
+     * @param cursor the nextCursor of the previous page, empty for the first page
+     */
+    @NonNull
+    CursorPage<Activity> findByContract(@NonNull String contractId, Optional<LocalDate> from, Optional<LocalDate> to,
+                                        Optional<String> cursor, int size);
+
+    /**
+     * Walks the activities of a contract done in [from, to], sorted by date then id.
+     * The returned stream MUST be closed by the caller.
+     */
+    @NonNull
+    Stream<Activity> streamByContract(@NonNull String contractId, Optional<LocalDate> from, Optional<LocalDate> to);
+
+    /**
+     * Walks every stored activity, in no particular order.
+     * The returned stream MUST be closed by the caller.
+     */
+    @NonNull
+    Stream<Activity> streamAll();
+}
@@ -0,0 +1,163 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity;
+
+import com.mongodb.MongoBulkWriteException;
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.middle.CursorPage;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.PageCursor;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.lang.NonNull;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Component
+@Profile(Profiles.NOT_IN_MEMORY)
+public class MongoActivityStorage implements ActivityStorage {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoActivityStorage.class);
+    private static final int STREAM_BATCH_SIZE = 500;
+    private static final Sort BY_DATE = Sort.by("doneOn", "_id");
+
+    private final ActivityRepository activityRepository;
+    private final MongoTemplate mongoTemplate;
+
+    public MongoActivityStorage(ActivityRepository activityRepository, MongoTemplate mongoTemplate) {
+        this.activityRepository = activityRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Inserts the activities with a single ordered insertMany : it stops at the first failing activity, the previous
+     * ones being stored.
+     */
+    @Override
+    @NonNull
+    public List<Activity> insertAll(@NonNull List<Activity> activities) {
+        List<Activity> inserted;
+        try {
+            inserted = this.activityRepository.insert(activities);
+        } catch (RuntimeException e) {
+            MongoBulkWriteException bulkWriteException = bulkWriteException(e);
+            if (bulkWriteException == null) {
+                throw e;
+            }
+            int insertedCount = bulkWriteException.getWriteResult().getInsertedCount();
+            LOGGER.error("Inserted {} activities out of {} : {}", insertedCount, activities.size(), bulkWriteException.getWriteErrors());
+            throw new ActivityInsertException(insertedCount, e);
+        }
+        LOGGER.info("Inserted {} activities", inserted.size());
+        return inserted;
+    }
+
+    /**
+     * @return the MongoDB exception telling which documents were written, null if the exception does not hold one
+     */
+    private static MongoBulkWriteException bulkWriteException(Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoBulkWriteException bulkWriteException) {
+                return bulkWriteException;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * One page of the activities of a contract done in [from, to], sorted by date then id.
+     *
+     * @param cursor the nextCursor of the previous page, empty for the first page
+     */
+    @Override
+    @NonNull
+    public CursorPage<Activity> findByContract(@NonNull String contractId, Optional<LocalDate> from, Optional<LocalDate> to,
+                                               Optional<String> cursor, int size) {
+        List<Activity> activities = this.mongoTemplate.find(pageQuery(contractId, from, to, cursor, size), Activity.class);
+        return page(activities, size);
+    }
+
+    /**
+     * @return the query of the page following the cursor ; it fetches one more activity than the page size
+     */
+    static Query pageQuery(String contractId, Optional<LocalDate> from, Optional<LocalDate> to, Optional<String> cursor, int size) {
+        return Query.query(contractCriteria(contractId, from, to, cursor)).with(BY_DATE).limit(size + 1);
+    }
+
+    /**
+     * @param activities the result of {@link #pageQuery(String, Optional, Optional, Optional, int)}
+     */
+    static CursorPage<Activity> page(List<Activity> activities, int size) {
+        // one more item than requested tells whether there is a next page
+        String nextCursor = null;
+        if (activities.size() > size) {
+            activities = activities.subList(0, size);
+            Activity last = activities.get(size - 1);
+            nextCursor = PageCursor.encode(last.doneOn.toString(), last.id.toHexString());
+        }
+        return new CursorPage<>(activities, nextCursor, null);
+    }
+
+    /**
+     * Walks the activities of a contract done in [from, to] through a database cursor, sorted by date then id.
+     * The returned stream holds the cursor and MUST be closed by the caller.
+     */
+    @Override
+    @NonNull
+    public Stream<Activity> streamByContract(@NonNull String contractId, Optional<LocalDate> from, Optional<LocalDate> to) {
+        return this.mongoTemplate.stream(streamQuery(contractId, from, to), Activity.class);
+    }
+
+    /**
+     * Walks every activity through a database cursor, in natural order.
+     * The returned stream holds the cursor and MUST be closed by the caller.
+     */
+    @Override
+    @NonNull
+    public Stream<Activity> streamAll() {
+        return this.mongoTemplate.stream(new Query().cursorBatchSize(STREAM_BATCH_SIZE), Activity.class);
+    }
+
+    static Query streamQuery(String contractId, Optional<LocalDate> from, Optional<LocalDate> to) {
+        return Query.query(contractCriteria(contractId, from, to, Optional.empty()))
+                .with(BY_DATE)
+                .cursorBatchSize(STREAM_BATCH_SIZE);
+    }
+
+    /**
+     * Served by the {contractId, doneOn, _id} index, the sort included.
+     */
+    private static Criteria contractCriteria(String contractId, Optional<LocalDate> from, Optional<LocalDate> to, Optional<String> cursor) {
+        List<Criteria> criteria = new ArrayList<>();
+        criteria.add(Criteria.where("contractId").is(contractId));
+        from.ifPresent(date -> criteria.add(Criteria.where("doneOn").gte(date)));
+        to.ifPresent(date -> criteria.add(Criteria.where("doneOn").lte(date)));
+        cursor.ifPresent(token -> {
+            List<String> after = PageCursor.decode(token, 2);
+            LocalDate doneOn;
+            try {
+                doneOn = LocalDate.parse(after.get(0));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + token, e);
+            }
+            if (!ObjectId.isValid(after.get(1))) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            criteria.add(new Criteria().orOperator(
+                    Criteria.where("doneOn").gt(doneOn),
+                    new Criteria().andOperator(
+                            Criteria.where("doneOn").is(doneOn),
+                            Criteria.where("_id").gt(new ObjectId(after.get(1))))));
+        });
+        return new Criteria().andOperator(criteria);
+    }
+}
@@ -0,0 +1,47 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity;
+
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.middle.CursorPage;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Non-blocking reads of the activities ; same queries as {@link MongoActivityStorage}.
+ */
+@Component
+@Profile(Profiles.REACTIVE)
+public class ReactiveActivityStorage {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveActivityStorage(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * See {@link MongoActivityStorage#findByContract(String, Optional, Optional, Optional, int)}.
+     */
+    @NonNull
+    public Mono<CursorPage<Activity>> findByContract(@NonNull String contractId, Optional<LocalDate> from, Optional<LocalDate> to,
+                                                     Optional<String> cursor, int size) {
+        return Mono.defer(() -> this.mongoTemplate.find(MongoActivityStorage.pageQuery(contractId, from, to, cursor, size), Activity.class)
+                .collectList()
+                .map(activities -> MongoActivityStorage.page(activities, size)));
+    }
+
+    /**
+     * The activities of a contract done in [from, to], sorted by date then id.
+     * Batches are only fetched from the database as the subscriber requests them.
+     */
+    @NonNull
+    public Flux<Activity> streamByContract(@NonNull String contractId, Optional<LocalDate> from, Optional<LocalDate> to) {
+        return this.mongoTemplate.find(MongoActivityStorage.streamQuery(contractId, from, to), Activity.class);
+    }
+}
@@ -1,11 +1,14 @@
 package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer;
 
+import org.springframework.data.mongodb.core.index.Indexed;
+
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
 public class Contract {
 
+    @Indexed // stored as _id : multikey index on users.contracts._id
     public String id = UUID.randomUUID().toString();
     public ContractType type;
 
@@ -2,6 +2,7 @@ package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer;
 
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDate;
@@ -21,6 +22,14 @@ public class Customer {
 
     public List<Contract> contracts = new ArrayList<>();
 
+    // search keys of the names, see CustomerNames ; set when the customer is saved
+    @Indexed
+    public List<String> nameTokens = new ArrayList<>();
+    @Indexed
+    public List<String> nameSuffixes = new ArrayList<>();
+    // CustomerNames.KEYS_VERSION the keys were computed with ; missing on customers indexed with version 1
+    public Integer nameKeysVersion;
+
 
 
 
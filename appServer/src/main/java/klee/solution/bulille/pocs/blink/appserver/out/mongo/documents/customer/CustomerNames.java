@@ -0,0 +1,97 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer;
+
+import klee.solution.bulille.pocs.blink.appserver.middle.NameSearchMode;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Search keys of the customer names : lower-cased, accent-free words, and every suffix of these words.
+ * <p>
+ * 'Éloïse Dupont-Martin' gives the tokens [eloise, dupont, martin] ; a prefix search is an anchored regex on the
+ * tokens, a contains search an anchored regex on the suffixes. Both can use an index.
+ * Words are made of Unicode letters and digits : 'Straße Øyvind' gives [straße, øyvind], 'Александр' [александр].
+ */
+public final class CustomerNames {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Version of the rules above, stored with the keys : customers indexed with an older version are indexed again.
+     * 1 only kept ASCII letters and digits.
+     */
+    public static final int KEYS_VERSION = 2;
+
+    /**
+     * A shorter word would be the start of the suffixes of most customers : its search would read most of the index
+     * then sort all these customers in memory.
+     */
+    public static final int MIN_CONTAINS_WORD_LENGTH = 3;
+
+    private CustomerNames() {
+    }
+
+    /**
+     * @return the distinct normalized words of the given texts, in order
+     */
+    public static List<String> tokens(String... texts) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                    .toLowerCase(Locale.ROOT);
+            Arrays.stream(SEPARATORS.split(folded))
+                    .filter(token -> !token.isEmpty())
+                    .forEach(tokens::add);
+        }
+        return List.copyOf(tokens);
+    }
+
+    /**
+     * @return the words of a name search
+     * @throws IllegalArgumentException if a word is shorter than {@link #MIN_CONTAINS_WORD_LENGTH} in contains mode
+     */
+    public static List<String> searchWords(String nameQuery, NameSearchMode mode) {
+        List<String> words = tokens(nameQuery);
+        if (mode == NameSearchMode.CONTAINS) {
+            words.stream()
+                    .filter(word -> word.length() < MIN_CONTAINS_WORD_LENGTH)
+                    .findFirst()
+                    .ifPresent(word -> {
+                        throw new IllegalArgumentException("In contains mode, every word must have at least "
+                                + MIN_CONTAINS_WORD_LENGTH + " characters, got '" + word + "' : use the prefix mode");
+                    });
+        }
+        return words;
+    }
+
+    /**
+     * @return the distinct suffixes of the given tokens, the tokens themselves included
+     */
+    public static List<String> suffixes(List<String> tokens) {
+        Set<String> suffixes = new LinkedHashSet<>();
+        for (String token : tokens) {
+            for (int start = 0; start < token.length(); start++) {
+                suffixes.add(token.substring(start));
+            }
+        }
+        return List.copyOf(suffixes);
+    }
+
+    /**
+     * Sets the search keys of the customer from its current names.
+     */
+    public static void index(Customer customer) {
+        customer.nameTokens = tokens(customer.firstName, customer.givenName);
+        customer.nameSuffixes = suffixes(customer.nameTokens);
+        customer.nameKeysVersion = KEYS_VERSION;
+    }
+}
@@ -1,35 +1,75 @@
 package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer;
 
+import klee.solution.bulille.pocs.blink.appserver.middle.CursorPage;
+import klee.solution.bulille.pocs.blink.appserver.middle.CustomerView;
+import klee.solution.bulille.pocs.blink.appserver.middle.NameSearchMode;
 import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId;
-import org.springframework.stereotype.Component;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-@Component
-public class CustomerStorage {
+/**
+ * Storage of the customers and their contracts ; in MongoDB ({@link MongoCustomerStorage}), or in memory with the
+ * inmemory profile.
+ */
+public interface CustomerStorage {
 
-    private final CustomerRepository customerRepository;
+    Optional<Customer> find(CustomerId customerId);
 
-    public CustomerStorage(CustomerRepository customerRepository) {
-        this.customerRepository = customerRepository;
-    }
+    /**
+     * @return the existing customers among the given ids, keyed by id ; only their id and contracts are loaded
+     */
+    Map<CustomerId, Customer> findContracts(Collection<CustomerId> customerIds);
 
-    public Optional<Customer> find(CustomerId customerId) {
+    /**
+     * @return the customer with only its id and the matching contract, empty if no customer holds it
+     */
+    Optional<Customer> findByContract(String contractId);
 
-        return this.customerRepository.findById(customerId.toOID());
-    }
+    /**
+     * Finds the customers whose names match every word of the query (see CustomerNames), sorted by id ; all
+     * customers if there is no query, none if the query is not blank but has no word.
+     *
+     * @throws IllegalArgumentException if a word is shorter than {@link CustomerNames#MIN_CONTAINS_WORD_LENGTH} in
+     * contains mode
+     */
+    Page<Customer> searchByName(String nameQuery, NameSearchMode mode, Pageable pageable, CustomerView view);
 
-    public Page<Customer> findByFirstNameOrGivenNameContainingIgnoreCase(String nameQuery, Pageable pageable) {
-        return this.customerRepository.findByFirstNameOrGivenNameContainingIgnoreCase(nameQuery, pageable);
-    }
+    /**
+     * Same search, paginated on the id.
+     *
+     * @param cursor the nextCursor of the previous page, empty for the first page
+     */
+    CursorPage<Customer> searchByName(String nameQuery, NameSearchMode mode, Optional<String> cursor, int size,
+                                      boolean includeTotal, CustomerView view);
 
-    public Page<Customer> findAll(Pageable pageable) {
-        return this.customerRepository.findAll(pageable);
-    }
+    /**
+     * Walks all customers ; only the contracts are loaded.
+     * The returned stream MUST be closed by the caller.
+     */
+    Stream<Customer> streamContracts();
 
-    public Customer save(Customer customer) {
-        return this.customerRepository.save(customer);
-    }
+    /**
+     * Creates or overwrites a customer, setting its name search keys.
+     */
+    Customer save(Customer customer);
+
+    /**
+     * Atomically appends a contract to a customer, ONLY if it overlaps none of its contracts.
+     *
+     * @return the updated customer, empty if the customer does not exist or if the contract overlaps one of its contracts
+     */
+    Optional<Customer> pushContract(CustomerId customerId, Contract contract);
+
+    /**
+     * Sets the name search keys of the customers saved before they existed, or indexed with an older
+     * {@link CustomerNames#KEYS_VERSION}.
+     *
+     * @return the number of customers updated
+     */
+    long indexMissingNames();
 }
@@ -0,0 +1,278 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer;
+
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.middle.CursorPage;
+import klee.solution.bulille.pocs.blink.appserver.middle.CustomerView;
+import klee.solution.bulille.pocs.blink.appserver.middle.NameSearchMode;
+import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.PageCursor;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Component
+@Profile(Profiles.NOT_IN_MEMORY)
+public class MongoCustomerStorage implements CustomerStorage {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoCustomerStorage.class);
+
+    private static final int STREAM_BATCH_SIZE = 500;
+
+    private final CustomerRepository customerRepository;
+    private final MongoTemplate mongoTemplate;
+
+    public MongoCustomerStorage(CustomerRepository customerRepository, MongoTemplate mongoTemplate) {
+        this.customerRepository = customerRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<Customer> find(CustomerId customerId) {
+
+        return this.customerRepository.findById(customerId.toOID());
+    }
+
+    /**
+     * @return the existing customers among the given ids, keyed by id ; only their id and contracts are loaded
+     */
+    @Override
+    public Map<CustomerId, Customer> findContracts(Collection<CustomerId> customerIds) {
+        Query query = Query.query(Criteria.where("_id").in(customerIds.stream().map(CustomerId::toOID).toList()));
+        query.fields().include("contracts");
+        Map<CustomerId, Customer> customers = new HashMap<>();
+        this.mongoTemplate.find(query, Customer.class)
+                .forEach(customer -> customers.put(new CustomerId(customer.id.toHexString()), customer));
+        return customers;
+    }
+
+    /**
+     * Finds the customer holding a contract, through the index on the contract ids.
+     *
+     * @return the customer with only its id and the matching contract, empty if no customer holds it
+     */
+    @Override
+    public Optional<Customer> findByContract(String contractId) {
+        // Contract.id is stored as _id
+        Query query = Query.query(Criteria.where("contracts._id").is(contractId));
+        query.fields().position("contracts", 1);
+        return Optional.ofNullable(this.mongoTemplate.findOne(query, Customer.class));
+    }
+
+    /**
+     * Finds the customers whose names match every word of the query (see CustomerNames), sorted by id ; all
+     * customers if there is no query, none if the query is not blank but has no word.
+     * Each word is an anchored regex on an indexed array, so that the search never scans the whole collection.
+     */
+    @Override
+    public Page<Customer> searchByName(String nameQuery, NameSearchMode mode, Pageable pageable, CustomerView view) {
+        Query query = searchQuery(nameQuery, mode);
+        List<Customer> customers = this.mongoTemplate.find(offsetPageQuery(query, pageable, view), Customer.class);
+        return PageableExecutionUtils.getPage(customers, pageable, () -> this.mongoTemplate.count(query, Customer.class));
+    }
+
+    /**
+     * Same search as {@link #searchByName(String, NameSearchMode, Pageable, CustomerView)}, paginated on the id :
+     * every page costs the same, however deep it is.
+     *
+     * @param cursor the nextCursor of the previous page, empty for the first page
+     */
+    @Override
+    public CursorPage<Customer> searchByName(String nameQuery, NameSearchMode mode, Optional<String> cursor, int size,
+                                             boolean includeTotal, CustomerView view) {
+        Query query = searchQuery(nameQuery, mode);
+        List<Customer> customers = this.mongoTemplate.find(pageQuery(query, cursor, size, view), Customer.class);
+        Long total = includeTotal ? this.mongoTemplate.count(query, Customer.class) : null;
+        return page(customers, size, total);
+    }
+
+    /**
+     * @return the query matching the customers searched by name, all customers if there is no query
+     * @throws IllegalArgumentException if a word is too short for the mode, see {@link CustomerNames#searchWords}
+     */
+    static Query searchQuery(String nameQuery, NameSearchMode mode) {
+        Query query = new Query();
+        nameCriteria(nameQuery, mode).ifPresent(query::addCriteria);
+        return query;
+    }
+
+    /**
+     * @return the query of the given page, sorted by id
+     */
+    static Query offsetPageQuery(Query query, Pageable pageable, CustomerView view) {
+        Query pageQuery = Query.of(query).with(pageable).with(Sort.by("_id"));
+        selectFields(pageQuery, view);
+        return pageQuery;
+    }
+
+    /**
+     * @return the query of the page following the cursor ; it fetches one more customer than the page size
+     */
+    static Query pageQuery(Query query, Optional<String> cursor, int size, CustomerView view) {
+        Query pageQuery = Query.of(query).with(Sort.by("_id")).limit(size + 1);
+        cursor.ifPresent(token -> pageQuery.addCriteria(Criteria.where("_id").gt(idAfter(token))));
+        selectFields(pageQuery, view);
+        return pageQuery;
+    }
+
+    /**
+     * @param customers the result of {@link #pageQuery(Query, Optional, int, CustomerView)}
+     */
+    static CursorPage<Customer> page(List<Customer> customers, int size, Long total) {
+        // one more item than requested tells whether there is a next page, without counting
+        String nextCursor = null;
+        if (customers.size() > size) {
+            customers = customers.subList(0, size);
+            nextCursor = PageCursor.encode(customers.get(size - 1).id.toHexString());
+        }
+        return new CursorPage<>(customers, nextCursor, total);
+    }
+
+    /**
+     * Never loads the search keys ; the summary leaves the sold prestations, the bulk of a customer, in the database.
+     */
+    private static void selectFields(Query query, CustomerView view) {
+        if (view == CustomerView.SUMMARY) {
+            // Contract.id is stored as _id
+            query.fields().include("firstName", "givenName", "dateOfBirth",
+                    "contracts._id", "contracts.type", "contracts.start", "contracts.end");
+        } else {
+            query.fields().exclude("nameTokens", "nameSuffixes", "nameKeysVersion");
+        }
+    }
+
+    private static ObjectId idAfter(String cursor) {
+        String id = PageCursor.decode(cursor, 1).get(0);
+        if (!ObjectId.isValid(id)) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return new ObjectId(id);
+    }
+
+    /**
+     * @return the criteria matching every word of the query, empty if there is no query
+     */
+    private static Optional<Criteria> nameCriteria(String nameQuery, NameSearchMode mode) {
+        if (nameQuery == null || nameQuery.isBlank()) {
+            return Optional.empty();
+        }
+        List<String> words = CustomerNames.searchWords(nameQuery, mode);
+        if (words.isEmpty()) {
+            // e.g. only punctuation : matches no customer, through the index
+            return Optional.of(Criteria.where("nameTokens").in(List.of()));
+        }
+        String field = mode == NameSearchMode.PREFIX ? "nameTokens" : "nameSuffixes";
+        // normalized words only hold letters and digits : nothing to escape
+        Criteria[] criteria = words.stream()
+                .map(word -> Criteria.where(field).regex("^" + word))
+                .toArray(Criteria[]::new);
+        return Optional.of(criteria.length == 1 ? criteria[0] : new Criteria().andOperator(criteria));
+    }
+
+    /**
+     * Walks all customers through a database cursor ; only the contracts are loaded.
+     * The returned stream holds the cursor and MUST be closed by the caller.
+     */
+    @Override
+    public Stream<Customer> streamContracts() {
+        Query query = new Query().cursorBatchSize(STREAM_BATCH_SIZE);
+        query.fields().include("contracts");
+        return this.mongoTemplate.stream(query, Customer.class);
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        CustomerNames.index(customer);
+        return this.customerRepository.save(customer);
+    }
+
+    /**
+     * Atomically appends a contract to a customer, ONLY if it overlaps none of its contracts.
+     * The overlap check is part of the update filter : two concurrent additions cannot both pass it, and only the new
+     * contract is sent to the database. A null end is an open-ended contract.
+     *
+     * @return the updated customer (without its name search keys), empty if the customer does not exist or if the
+     * contract overlaps one of its contracts
+     */
+    @Override
+    public Optional<Customer> pushContract(CustomerId customerId, Contract contract) {
+        // an existing contract overlaps if it starts before the new one ends, and ends after the new one starts
+        Criteria overlapping = new Criteria().orOperator(
+                Criteria.where("end").is(null),
+                Criteria.where("end").gte(contract.start));
+        if (contract.end != null) {
+            overlapping = new Criteria().andOperator(Criteria.where("start").lte(contract.end), overlapping);
+        }
+        Query query = Query.query(Criteria.where("_id").is(customerId.toOID())
+                .and("contracts").not().elemMatch(overlapping));
+        query.fields().exclude("nameTokens", "nameSuffixes", "nameKeysVersion");
+
+        Customer updated = this.mongoTemplate.findAndModify(query,
+                new Update().push("contracts", contract),
+                FindAndModifyOptions.options().returnNew(true),
+                Customer.class);
+        if (updated != null) {
+            LOGGER.info("Contract {} ({} from {} to {}) added to customer {}", contract.id, contract.type, contract.start, contract.end, customerId.id());
+        }
+        return Optional.ofNullable(updated);
+    }
+
+    /**
+     * Sets the name search keys of the customers saved before they existed, or indexed with an older
+     * {@link CustomerNames#KEYS_VERSION}.
+     *
+     * @return the number of customers updated
+     */
+    @Override
+    public long indexMissingNames() {
+        Query query = Query.query(Criteria.where("nameKeysVersion").ne(CustomerNames.KEYS_VERSION)).cursorBatchSize(STREAM_BATCH_SIZE);
+        query.fields().include("firstName", "givenName");
+
+        long updated = 0;
+        List<Customer> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+        try (Stream<Customer> customers = this.mongoTemplate.stream(query, Customer.class)) {
+            Iterator<Customer> iterator = customers.iterator();
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == STREAM_BATCH_SIZE || !iterator.hasNext()) {
+                    updated += this.writeNameKeys(batch);
+                    batch.clear();
+                }
+            }
+        }
+        return updated;
+    }
+
+    private long writeNameKeys(List<Customer> customers) {
+        BulkOperations bulkOperations = this.mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Customer.class);
+        for (Customer customer : customers) {
+            CustomerNames.index(customer);
+            bulkOperations.updateOne(Query.query(Criteria.where("_id").is(customer.id)),
+                    new Update().set("nameTokens", customer.nameTokens).set("nameSuffixes", customer.nameSuffixes)
+                            .set("nameKeysVersion", customer.nameKeysVersion));
+        }
+        long updated = bulkOperations.execute().getModifiedCount();
+        LOGGER.info("Name search keys set on {} customers", updated);
+        return updated;
+    }
+}
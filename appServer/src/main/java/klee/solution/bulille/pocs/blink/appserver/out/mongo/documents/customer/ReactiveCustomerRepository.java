@@ -0,0 +1,7 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+public interface ReactiveCustomerRepository extends ReactiveMongoRepository<Customer, ObjectId> {
+}
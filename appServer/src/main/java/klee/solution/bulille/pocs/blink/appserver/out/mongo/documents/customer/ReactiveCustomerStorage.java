@@ -0,0 +1,67 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer;
+
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.middle.CursorPage;
+import klee.solution.bulille.pocs.blink.appserver.middle.CustomerView;
+import klee.solution.bulille.pocs.blink.appserver.middle.NameSearchMode;
+import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Non-blocking reads of the customers ; same queries as {@link MongoCustomerStorage}.
+ */
+@Component
+@Profile(Profiles.REACTIVE)
+public class ReactiveCustomerStorage {
+
+    private final ReactiveCustomerRepository customerRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public ReactiveCustomerStorage(ReactiveCustomerRepository customerRepository, ReactiveMongoTemplate mongoTemplate) {
+        this.customerRepository = customerRepository;
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    public Mono<Customer> find(CustomerId customerId) {
+        return this.customerRepository.findById(customerId.toOID());
+    }
+
+    /**
+     * See {@link MongoCustomerStorage#searchByName(String, NameSearchMode, Pageable, CustomerView)} ; the page and the
+     * total are read concurrently.
+     */
+    public Mono<Page<Customer>> searchByName(String nameQuery, NameSearchMode mode, Pageable pageable, CustomerView view) {
+        return Mono.defer(() -> {
+            Query query = MongoCustomerStorage.searchQuery(nameQuery, mode);
+            return Mono.zip(this.mongoTemplate.find(MongoCustomerStorage.offsetPageQuery(query, pageable, view), Customer.class).collectList(),
+                            this.mongoTemplate.count(query, Customer.class))
+                    .map(result -> new PageImpl<>(result.getT1(), pageable, result.getT2()));
+        });
+    }
+
+    /**
+     * See {@link MongoCustomerStorage#searchByName(String, NameSearchMode, Optional, int, boolean, CustomerView)} ; the
+     * page and the total are read concurrently.
+     */
+    public Mono<CursorPage<Customer>> searchByName(String nameQuery, NameSearchMode mode, Optional<String> cursor, int size,
+                                                   boolean includeTotal, CustomerView view) {
+        return Mono.defer(() -> {
+            Query query = MongoCustomerStorage.searchQuery(nameQuery, mode);
+            Query pageQuery = MongoCustomerStorage.pageQuery(query, cursor, size, view);
+            Mono<Optional<Long>> total = includeTotal
+                    ? this.mongoTemplate.count(query, Customer.class).map(Optional::of)
+                    : Mono.just(Optional.empty());
+            return Mono.zip(this.mongoTemplate.find(pageQuery, Customer.class).collectList(), total)
+                    .map(result -> MongoCustomerStorage.page(result.getT1(), size, result.getT2().orElse(null)));
+        });
+    }
+}
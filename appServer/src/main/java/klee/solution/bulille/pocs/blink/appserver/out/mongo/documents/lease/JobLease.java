@@ -0,0 +1,28 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.lease;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Exclusive right of one instance of the app to run a job, until it is released or expires.
+ * <p>
+ * The token is the fencing token of the lease : it grows every time the lease is acquired, so that a holder whose
+ * lease expired (e.g. after a long pause) can tell it was taken over before writing its results.
+ * Expired leases are deleted by MongoDB (TTL index) ; tokens keep growing as they start from the acquisition time.
+ */
+@Document("job_leases")
+public class JobLease {
+
+    @Id
+    public String job;
+
+    public String owner;
+    public long token;
+    public Instant acquiredAt;
+
+    @Indexed(expireAfter = "0s")
+    public Instant expiresAt;
+}
@@ -0,0 +1,32 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.lease;
+
+import org.springframework.lang.NonNull;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Storage of the job leases ; in MongoDB ({@link MongoJobLeaseStorage}), or in memory with the inmemory profile.
+ */
+public interface JobLeaseStorage {
+
+    /**
+     * Atomically takes the lease of a job, ONLY if nobody holds it or its lease expired.
+     *
+     * @param atMost time after which the lease expires if it was not released (e.g. the holder crashed)
+     * @return the lease, with a fencing token greater than any previous one of the job ; empty if it is held
+     */
+    @NonNull
+    Optional<JobLease> acquire(@NonNull String job, @NonNull String owner, @NonNull Duration atMost);
+
+    /**
+     * @return true if the lease is still held with this token and did not expire
+     */
+    boolean isHeld(@NonNull JobLease lease);
+
+    /**
+     * Ends the lease, not before atLeast after it was acquired : a job run on a schedule does not run again on an
+     * instance whose clock is a bit late. Does nothing if the lease was taken over meanwhile.
+     */
+    void release(@NonNull JobLease lease, @NonNull Duration atLeast);
+}
@@ -0,0 +1,97 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.lease;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Leases are taken with a single findAndModify : the filter only matches an expired lease, and the upsert fails
+ * with a duplicate key if the lease exists and is held. Times are those of the database ($$NOW), so that the clocks
+ * of the instances do not matter.
+ */
+@Component
+@Profile(Profiles.NOT_IN_MEMORY)
+public class MongoJobLeaseStorage implements JobLeaseStorage {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoJobLeaseStorage.class);
+    private static final int DUPLICATE_KEY = 11000;
+    private static final String NOW = "$$NOW";
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoJobLeaseStorage(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    @NonNull
+    public Optional<JobLease> acquire(@NonNull String job, @NonNull String owner, @NonNull Duration atMost) {
+        Document expired = new Document("_id", job)
+                .append("$expr", new Document("$lt", List.of("$expiresAt", NOW)));
+        // the token is never below the acquisition time in ms : it keeps growing once an expired lease was deleted
+        Document token = new Document("$max", List.of(
+                new Document("$add", List.of(new Document("$ifNull", List.of("$token", 0L)), 1L)),
+                new Document("$toLong", NOW)));
+        List<Document> take = List.of(new Document("$set", new Document("owner", owner)
+                .append("token", token)
+                .append("acquiredAt", NOW)
+                .append("expiresAt", new Document("$add", List.of(NOW, atMost.toMillis())))));
+        try {
+            Document lease = this.collection().findOneAndUpdate(expired, take,
+                    new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+            JobLease acquired = this.mongoTemplate.getConverter().read(JobLease.class, lease);
+            LOGGER.info("Lease of {} acquired by {} (token {}) until {}", job, owner, acquired.token, acquired.expiresAt);
+            return Optional.of(acquired);
+        } catch (MongoException e) {
+            if (e.getCode() != DUPLICATE_KEY) {
+                throw e;
+            }
+            // the lease exists and did not match the filter : it is held
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public boolean isHeld(@NonNull JobLease lease) {
+        Document held = this.heldBy(lease)
+                .append("$expr", new Document("$gt", List.of("$expiresAt", NOW)));
+        return this.collection().find(held).projection(Projections.include("_id")).first() != null;
+    }
+
+    @Override
+    public void release(@NonNull JobLease lease, @NonNull Duration atLeast) {
+        Document expiresAt = new Document("$max", List.of(NOW,
+                new Document("$add", List.of("$acquiredAt", atLeast.toMillis()))));
+        long released = this.collection().updateOne(this.heldBy(lease),
+                List.of(new Document("$set", new Document("expiresAt", expiresAt)))).getModifiedCount();
+        if (released == 0) {
+            LOGGER.warn("Lease of {} (token {}) was taken over before being released", lease.job, lease.token);
+        } else {
+            LOGGER.info("Lease of {} released by {} (token {})", lease.job, lease.owner, lease.token);
+        }
+    }
+
+    private Document heldBy(JobLease lease) {
+        return new Document("_id", lease.job)
+                .append("owner", lease.owner)
+                .append("token", lease.token);
+    }
+
+    private MongoCollection<Document> collection() {
+        return this.mongoTemplate.getCollection(this.mongoTemplate.getCollectionName(JobLease.class));
+    }
+}
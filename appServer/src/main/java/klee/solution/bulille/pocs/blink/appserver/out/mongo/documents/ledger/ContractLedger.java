@@ -0,0 +1,27 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Running totals of what has been consumed on one prestation of one contract.
+ * Incremented every time an activity is saved ; it can be rebuilt from the activity collection.
+ */
+@Document("contract_ledger")
+public class ContractLedger {
+
+    @Id
+    public String id; // see idOf(contractId, salesSystemId)
+
+    @Indexed
+    public String contractId;
+    public String salesSystemId;
+
+    public double unitsConsumed;
+    public double billedAmount;
+
+    public static String idOf(String contractId, String salesSystemId) {
+        return contractId + ":" + salesSystemId;
+    }
+}
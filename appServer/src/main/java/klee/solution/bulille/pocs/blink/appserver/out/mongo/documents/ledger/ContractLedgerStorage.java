@@ -0,0 +1,69 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger;
+
+import org.springframework.lang.NonNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Storage of the contract ledger ; in MongoDB ({@link MongoContractLedgerStorage}), or in memory with the inmemory
+ * profile.
+ */
+public interface ContractLedgerStorage {
+
+    @NonNull
+    Optional<ContractLedger> find(@NonNull String contractId, @NonNull String salesSystemId);
+
+    /**
+     * @return the existing ledger entries among the given ids (see ContractLedger.idOf), keyed by id
+     */
+    @NonNull
+    Map<String, ContractLedger> findAll(@NonNull Collection<String> ledgerIds);
+
+    /**
+     * @return the ledger entries of a contract, one per consumed prestation
+     */
+    @NonNull
+    List<ContractLedger> findByContract(@NonNull String contractId);
+
+    /**
+     * Atomically adds each consumption to its ledger entry, creating it if needed, ONLY if the consumed units stay
+     * within the reservation's maxUnits. Concurrent reservations cannot both pass. The reservations MUST target
+     * distinct entries.
+     *
+     * @return for each reservation (same order), true if the units were reserved, false if they would exceed maxUnits
+     */
+    @NonNull
+    List<Boolean> reserveAll(@NonNull List<LedgerReservation> reservations);
+
+    /**
+     * Gives back units previously reserved, when the consumptions could not be stored.
+     */
+    void releaseAll(@NonNull List<LedgerReservation> reservations);
+
+    /**
+     * @return the billed amount of every contract having a ledger entry, keyed by contract id
+     */
+    @NonNull
+    Map<String, Double> billedAmountPerContract();
+
+    /**
+     * @return false if the ledger was never built
+     */
+    boolean exists();
+
+    /**
+     * Recomputes the whole ledger from the activities.
+     * <p>
+     * Activities are stored after their units were reserved, and their reservation is released if they could not be
+     * stored. The rebuild only counts the activities stored when it reads them, and replaces every reservation made
+     * until then : an activity reserved before the rebuild but stored after it read the activities is missing from
+     * the ledger, and a reservation released after the rebuild is taken off an entry that never counted it. Run it
+     * when no activity is being added (e.g. at startup), or run it again once they are.
+     *
+     * @return the number of ledger entries after the rebuild
+     */
+    long rebuildFromActivities();
+}
@@ -0,0 +1,12 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger;
+
+/**
+ * Units (and their billed amount) to add to the ledger entry of (contractId, salesSystemId), as long as the consumed
+ * units stay within maxUnits.
+ */
+public record LedgerReservation(String contractId, String salesSystemId, double units, double amount, long maxUnits) {
+
+    public String ledgerId() {
+        return ContractLedger.idOf(this.contractId, this.salesSystemId);
+    }
+}
@@ -0,0 +1,248 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger;
+
+import com.mongodb.bulk.BulkWriteError;
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.Activity;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.Prestation;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.lang.NonNull;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Component
+@Profile(Profiles.NOT_IN_MEMORY)
+public class MongoContractLedgerStorage implements ContractLedgerStorage {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoContractLedgerStorage.class);
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoContractLedgerStorage(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    @NonNull
+    public Optional<ContractLedger> find(@NonNull String contractId, @NonNull String salesSystemId) {
+        return Optional.ofNullable(this.mongoTemplate.findById(ContractLedger.idOf(contractId, salesSystemId), ContractLedger.class));
+    }
+
+    /**
+     * @return the existing ledger entries among the given ids (see ContractLedger.idOf), keyed by id
+     */
+    @Override
+    @NonNull
+    public Map<String, ContractLedger> findAll(@NonNull Collection<String> ledgerIds) {
+        Map<String, ContractLedger> ledgers = new HashMap<>();
+        this.mongoTemplate.find(Query.query(Criteria.where("_id").in(ledgerIds)), ContractLedger.class)
+                .forEach(ledger -> ledgers.put(ledger.id, ledger));
+        return ledgers;
+    }
+
+    /**
+     * @return the ledger entries of a contract, one per consumed prestation
+     */
+    @Override
+    @NonNull
+    public List<ContractLedger> findByContract(@NonNull String contractId) {
+        return this.mongoTemplate.find(Query.query(Criteria.where("contractId").is(contractId)), ContractLedger.class);
+    }
+
+    /**
+     * Atomically adds each consumption to its ledger entry, creating it if needed,
+     * ONLY if the consumed units stay within the reservation's maxUnits.
+     * For each entry the check and the increment are a single conditional update : concurrent reservations cannot
+     * both pass. All reservations are sent in one unordered bulk write ; they MUST target distinct entries.
+     * An upsert failing on a duplicate key (over quota, or the entry was created by a concurrent reservation) is
+     * retried once as a conditional increment of the existing entry. If the bulk write fails for another reason, the
+     * reservations it applied are released before the exception is rethrown.
+     *
+     * @return for each reservation (same order), true if the units were reserved, false if they would exceed maxUnits
+     */
+    @Override
+    @NonNull
+    public List<Boolean> reserveAll(@NonNull List<LedgerReservation> reservations) {
+        List<Boolean> reserved = new ArrayList<>(Collections.nCopies(reservations.size(), Boolean.FALSE));
+        List<Integer> sent = new ArrayList<>();
+        BulkOperations bulkOperations = this.mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ContractLedger.class);
+        for (int i = 0; i < reservations.size(); i++) {
+            LedgerReservation reservation = reservations.get(i);
+            if (reservation.units() > reservation.maxUnits()) {
+                continue;
+            }
+            bulkOperations.upsert(withinQuota(reservation), new Update()
+                    .setOnInsert("contractId", reservation.contractId())
+                    .setOnInsert("salesSystemId", reservation.salesSystemId())
+                    .inc("unitsConsumed", reservation.units())
+                    .inc("billedAmount", reservation.amount()));
+            sent.add(i);
+            reserved.set(i, Boolean.TRUE);
+        }
+        if (sent.isEmpty()) {
+            return reserved;
+        }
+
+        try {
+            bulkOperations.execute();
+        } catch (BulkOperationException e) {
+            if (e.getErrors().stream().anyMatch(error -> error.getCode() != DUPLICATE_KEY)) {
+                // the unordered bulk applied the other reservations : give their units back before failing
+                Set<Integer> failed = e.getErrors().stream().map(BulkWriteError::getIndex).collect(Collectors.toSet());
+                List<LedgerReservation> applied = new ArrayList<>();
+                for (int i = 0; i < sent.size(); i++) {
+                    if (!failed.contains(i)) {
+                        applied.add(reservations.get(sent.get(i)));
+                    }
+                }
+                this.releaseAll(applied);
+                throw e;
+            }
+            for (BulkWriteError error : e.getErrors()) {
+                // the upsert tried to create an entry that exists : either it is over quota, or another reservation
+                // created it meanwhile ; only the increment on the existing entry can tell
+                int index = sent.get(error.getIndex());
+                reserved.set(index, this.reserveExisting(reservations.get(index)));
+            }
+        }
+        for (int i = 0; i < reservations.size(); i++) {
+            LedgerReservation reservation = reservations.get(i);
+            if (reserved.get(i)) {
+                LOGGER.info("Reserved {} units ({}) on ledger of contract {} / prestation {}", reservation.units(), reservation.amount(), reservation.contractId(), reservation.salesSystemId());
+            } else {
+                LOGGER.info("Reservation of {} units refused on ledger of contract {} / prestation {} : quota of {} units reached", reservation.units(), reservation.contractId(), reservation.salesSystemId(), reservation.maxUnits());
+            }
+        }
+        return reserved;
+    }
+
+    /**
+     * Same conditional increment as the upsert, on an entry that exists.
+     *
+     * @return false if the entry is over quota
+     */
+    private boolean reserveExisting(LedgerReservation reservation) {
+        return this.mongoTemplate.updateFirst(withinQuota(reservation), new Update()
+                        .inc("unitsConsumed", reservation.units())
+                        .inc("billedAmount", reservation.amount()),
+                ContractLedger.class).getMatchedCount() > 0;
+    }
+
+    private static Query withinQuota(LedgerReservation reservation) {
+        return Query.query(Criteria.where("_id").is(reservation.ledgerId())
+                .and("unitsConsumed").lte(reservation.maxUnits() - reservation.units()));
+    }
+
+    /**
+     * Gives back units previously reserved, when the consumptions could not be stored.
+     */
+    @Override
+    public void releaseAll(@NonNull List<LedgerReservation> reservations) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        BulkOperations bulkOperations = this.mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ContractLedger.class);
+        for (LedgerReservation reservation : reservations) {
+            bulkOperations.updateOne(
+                    Query.query(Criteria.where("_id").is(reservation.ledgerId())),
+                    new Update()
+                            .inc("unitsConsumed", -reservation.units())
+                            .inc("billedAmount", -reservation.amount()));
+            LOGGER.warn("Releasing {} units ({}) on ledger of contract {} / prestation {}", reservation.units(), reservation.amount(), reservation.contractId(), reservation.salesSystemId());
+        }
+        bulkOperations.execute();
+    }
+
+    /**
+     * @return the billed amount of every contract having a ledger entry, keyed by contract id
+     */
+    @Override
+    @NonNull
+    public Map<String, Double> billedAmountPerContract() {
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.group("contractId").sum("billedAmount").as("billedAmount"));
+
+        Map<String, Double> billedAmounts = new HashMap<>();
+        this.mongoTemplate.aggregate(aggregation, ContractLedger.class, Document.class)
+                .forEach(result -> billedAmounts.put(
+                        result.getString("_id"),
+                        result.get("billedAmount", Number.class).doubleValue()));
+        return billedAmounts;
+    }
+
+    @Override
+    public boolean exists() {
+        return this.mongoTemplate.collectionExists(ContractLedger.class);
+    }
+
+    /**
+     * Recomputes the whole ledger from the activity collection, in a single aggregation whose result
+     * atomically replaces the ledger collection ($out).
+     * Activities saved while the rebuild runs may be missed, see {@link ContractLedgerStorage#rebuildFromActivities()} ;
+     * no lock can cover the reservations of the other instances.
+     *
+     * @return the number of ledger entries after the rebuild
+     */
+    @Override
+    public long rebuildFromActivities() {
+        String activityCollection = this.mongoTemplate.getCollectionName(Activity.class);
+        String ledgerCollection = this.mongoTemplate.getCollectionName(ContractLedger.class);
+        LOGGER.info("Rebuilding '{}' from '{}'", ledgerCollection, activityCollection);
+
+        Aggregation aggregation = Aggregation.newAggregation(this.rebuildPipeline(ledgerCollection))
+                .withOptions(AggregationOptions.builder().allowDiskUse(true).skipOutput().build());
+        this.mongoTemplate.aggregate(aggregation, activityCollection, Document.class);
+
+        long entries = this.mongoTemplate.estimatedCount(ledgerCollection);
+        LOGGER.info("Rebuilt '{}' : {} entries", ledgerCollection, entries);
+        return entries;
+    }
+
+    private List<AggregationOperation> rebuildPipeline(String ledgerCollection) {
+        String prestationCollection = this.mongoTemplate.getCollectionName(Prestation.class);
+        return List.of(
+                stage(new Document("$group", new Document("_id",
+                        new Document("contractId", "$contractId").append("salesSystemId", "$salesSystemId"))
+                        .append("unitsConsumed", new Document("$sum", "$unitsConsumed")))),
+                stage(new Document("$lookup", new Document("from", prestationCollection)
+                        .append("localField", "_id.salesSystemId")
+                        .append("foreignField", "_id")
+                        .append("as", "prestation"))),
+                stage(new Document("$unwind", new Document("path", "$prestation")
+                        .append("preserveNullAndEmptyArrays", true))),
+                stage(new Document("$project", new Document("_id",
+                        new Document("$concat", List.of("$_id.contractId", ":", "$_id.salesSystemId")))
+                        .append("contractId", "$_id.contractId")
+                        .append("salesSystemId", "$_id.salesSystemId")
+                        .append("unitsConsumed", 1)
+                        .append("billedAmount", new Document("$multiply", List.of(
+                                "$unitsConsumed",
+                                new Document("$ifNull", List.of("$prestation.unitPrice", 0))))))),
+                stage(new Document("$out", ledgerCollection)));
+    }
+
+    private static AggregationOperation stage(Document stage) {
+        return context -> stage;
+    }
+}
@@ -0,0 +1,82 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation;
+
+import com.mongodb.bulk.BulkWriteResult;
+import klee.solution.bulille.pocs.blink.appserver.config.Profiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.lang.NonNull;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Component
+@Profile(Profiles.NOT_IN_MEMORY)
+public class MongoPrestationStorage implements PrestationStorage {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MongoPrestationStorage.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final PrestationRepository prestationRepository;
+
+    public MongoPrestationStorage(MongoTemplate mongoTemplate, PrestationRepository prestationRepository) {
+        this.mongoTemplate = mongoTemplate;
+        this.prestationRepository = prestationRepository;
+    }
+
+    @Override
+    @NonNull
+    public Optional<Prestation> find(@NonNull String salesSystemId) {
+        return this.prestationRepository.findById(salesSystemId);
+    }
+
+    /**
+     * @return the stored prestations among the given salesSystemIds, keyed by salesSystemId
+     */
+    @Override
+    @NonNull
+    public Map<String, Prestation> findAll(@NonNull Collection<String> salesSystemIds) {
+        Map<String, Prestation> prestations = new HashMap<>();
+        this.prestationRepository.findAllById(salesSystemIds)
+                .forEach(prestation -> prestations.put(prestation.salesSystemId, prestation));
+        return prestations;
+    }
+
+    /**
+     * Creates or overwrites the given prestations in a single unordered bulk write.
+     * The prestations MUST have distinct salesSystemIds : the order of the writes is not guaranteed.
+     */
+    @Override
+    @NonNull
+    public PrestationWriteResult upsertAll(@NonNull Collection<Prestation> prestations) {
+        if (prestations.isEmpty()) {
+            return new PrestationWriteResult(0, 0, 0);
+        }
+        BulkOperations bulkOperations = this.mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Prestation.class);
+        for (Prestation prestation : prestations) {
+            bulkOperations.upsert(
+                    Query.query(Criteria.where("_id").is(prestation.salesSystemId)),
+                    new Update().set("name", prestation.name).set("unitPrice", prestation.unitPrice));
+        }
+
+        try {
+            BulkWriteResult result = bulkOperations.execute();
+            LOGGER.info("Bulk upserted {} prestations", prestations.size());
+            return new PrestationWriteResult(result.getUpserts().size(), result.getMatchedCount(), 0);
+        } catch (BulkOperationException e) {
+            // unordered : every operation but the failed ones has been applied
+            BulkWriteResult result = e.getResult();
+            e.getErrors().forEach(error -> LOGGER.warn("Prestation rejected by the database: {}", error.getMessage()));
+            return new PrestationWriteResult(result.getUpserts().size(), result.getMatchedCount(), e.getErrors().size());
+        }
+    }
+}
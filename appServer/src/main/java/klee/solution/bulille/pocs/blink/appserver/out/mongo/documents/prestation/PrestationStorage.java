@@ -0,0 +1,28 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation;
+
+import org.springframework.lang.NonNull;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Storage of the prestations ; in MongoDB ({@link MongoPrestationStorage}), or in memory with the inmemory profile.
+ */
+public interface PrestationStorage {
+
+    @NonNull
+    Optional<Prestation> find(@NonNull String salesSystemId);
+
+    /**
+     * @return the stored prestations among the given salesSystemIds, keyed by salesSystemId
+     */
+    @NonNull
+    Map<String, Prestation> findAll(@NonNull Collection<String> salesSystemIds);
+
+    /**
+     * Creates or overwrites the given prestations. They MUST have distinct salesSystemIds.
+     */
+    @NonNull
+    PrestationWriteResult upsertAll(@NonNull Collection<Prestation> prestations);
+}
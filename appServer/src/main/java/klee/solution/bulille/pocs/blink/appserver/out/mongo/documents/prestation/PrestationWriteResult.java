@@ -0,0 +1,11 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation;
+
+/**
+ * Outcome of a bulk write of prestations.
+ *
+ * @param inserted number of prestations created
+ * @param updated  number of existing prestations overwritten
+ * @param rejected number of prestations the database refused to write
+ */
+public record PrestationWriteResult(int inserted, int updated, int rejected) {
+}
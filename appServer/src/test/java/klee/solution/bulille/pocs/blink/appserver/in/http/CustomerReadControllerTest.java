@@ -0,0 +1,90 @@
+package klee.solution.bulille.pocs.blink.appserver.in.http;
+
+import klee.solution.bulille.pocs.blink.appserver.middle.CursorPage;
+import klee.solution.bulille.pocs.blink.appserver.middle.CustomerService;
+import klee.solution.bulille.pocs.blink.appserver.middle.NameSearchMode;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CustomerReadControllerTest {
+
+    private final CustomerService customerService = mock(CustomerService.class);
+    private final CustomerReadController controller = new CustomerReadController(this.customerService);
+
+    @Test
+    void paginatesOnOffsetWithoutCursor() {
+        when(this.customerService.searchCustomerSummaries("martin", NameSearchMode.PREFIX, PageRequest.of(3, 20)))
+                .thenReturn(Page.empty());
+
+        ResponseEntity<?> response = this.controller.searchCustomers("martin", "prefix", null, 3, 20, false, null);
+
+        assertThat(response.getBody()).isInstanceOf(Page.class);
+    }
+
+    @Test
+    void paginatesOnKeysetWithACursor() {
+        CursorPage<?> firstPage = new CursorPage<>(List.of(), "next", null);
+        when(this.customerService.searchCustomerSummaries("martin", NameSearchMode.CONTAINS, Optional.empty(), 20, true))
+                .thenAnswer(invocation -> firstPage);
+        CursorPage<?> nextPage = new CursorPage<>(List.of(), null, null);
+        when(this.customerService.searchCustomers("martin", NameSearchMode.CONTAINS, Optional.of("next"), 20, false))
+                .thenAnswer(invocation -> nextPage);
+
+        // an empty cursor asks for the first page
+        assertThat(this.controller.searchCustomers("martin", "contains", "", 0, 20, true, null).getBody()).isSameAs(firstPage);
+        assertThat(this.controller.searchCustomers("martin", "contains", "next", 0, 20, false, CustomerReadController.EXPAND_CONTRACTS).getBody())
+                .isSameAs(nextPage);
+    }
+
+    @Test
+    void listsAllCustomersOnKeyset() {
+        this.controller.listCustomers(null, 10, false, null);
+
+        verify(this.customerService).searchCustomerSummaries(null, NameSearchMode.CONTAINS, Optional.empty(), 10, false);
+    }
+
+    @Test
+    void boundsThePageSize() {
+        assertThat(this.controller.searchCustomers(null, "contains", null, 0, 0, false, null).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(this.controller.searchCustomers(null, "contains", "", 0, CustomerReadController.MAX_PAGE_SIZE + 1, false, null).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(this.customerService);
+
+        this.controller.searchCustomers(null, "contains", "", 0, CustomerReadController.MAX_PAGE_SIZE, false, null);
+        verify(this.customerService).searchCustomerSummaries(null, NameSearchMode.CONTAINS, Optional.empty(), CustomerReadController.MAX_PAGE_SIZE, false);
+    }
+
+    @Test
+    void refusesInvalidParameters() {
+        assertThat(this.controller.searchCustomers(null, "contains", null, -1, 10, false, null).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(this.controller.searchCustomers(null, "fuzzy", null, 0, 10, false, null).getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(this.controller.searchCustomers(null, "contains", null, 0, 10, false, "activities").getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(this.customerService);
+    }
+
+    @Test
+    void refusesAnInvalidCursor() {
+        when(this.customerService.searchCustomerSummaries(any(), any(), any(Optional.class), anyInt(), anyBoolean()))
+                .thenThrow(new IllegalArgumentException("Invalid cursor: x"));
+
+        ResponseEntity<?> response = this.controller.searchCustomers(null, "contains", "x", 0, 10, false, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody()).isEqualTo("Invalid cursor: x");
+    }
+}
@@ -0,0 +1,81 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import klee.solution.bulille.pocs.blink.appserver.config.CacheProperties;
+import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Contract;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.CustomerStorage;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ContractCacheTest {
+
+    private static final CustomerId CUSTOMER_ID = new CustomerId(new ObjectId().toHexString());
+
+    private final CustomerStorage customerStorage = mock(CustomerStorage.class);
+    private final ContractCache contractCache = new ContractCache(this.customerStorage,
+            new CacheProperties(10, 10, Duration.ofMinutes(10)), new SimpleMeterRegistry());
+    private final Customer customer = new Customer();
+
+    ContractCacheTest() {
+        this.customer.id = CUSTOMER_ID.toOID();
+        this.customer.contracts = new ArrayList<>(List.of(contract("c1")));
+        when(this.customerStorage.findContracts(anyCollection())).thenReturn(Map.of(CUSTOMER_ID, this.customer));
+    }
+
+    @Test
+    void servesKnownContractsFromTheCache() {
+        this.contractCache.findAll(Map.of(CUSTOMER_ID, Set.of("c1")));
+        Map<CustomerId, Map<String, ContractSnapshot>> found = this.contractCache.findAll(Map.of(CUSTOMER_ID, Set.of("c1")));
+
+        assertThat(found.get(CUSTOMER_ID)).containsOnlyKeys("c1");
+        verify(this.customerStorage, times(1)).findContracts(anyCollection());
+    }
+
+    @Test
+    void reloadsOnceForAContractAddedElsewhere() {
+        this.contractCache.findAll(Map.of(CUSTOMER_ID, Set.of("c1")));
+        this.customer.contracts.add(contract("c2"));
+
+        Map<CustomerId, Map<String, ContractSnapshot>> found = this.contractCache.findAll(Map.of(CUSTOMER_ID, Set.of("c2")));
+
+        assertThat(found.get(CUSTOMER_ID)).containsOnlyKeys("c1", "c2");
+        verify(this.customerStorage, times(2)).findContracts(anyCollection());
+    }
+
+    @Test
+    void remembersUnknownContractsUntilInvalidated() {
+        this.contractCache.findAll(Map.of(CUSTOMER_ID, Set.of("c1")));
+        this.contractCache.findAll(Map.of(CUSTOMER_ID, Set.of("bogus")));
+        Map<CustomerId, Map<String, ContractSnapshot>> found = this.contractCache.findAll(Map.of(CUSTOMER_ID, Set.of("bogus", "c1")));
+
+        assertThat(found.get(CUSTOMER_ID)).containsOnlyKeys("c1");
+        verify(this.customerStorage, times(2)).findContracts(anyCollection());
+
+        this.contractCache.invalidate(CUSTOMER_ID);
+        this.contractCache.findAll(Map.of(CUSTOMER_ID, Set.of("bogus")));
+        verify(this.customerStorage, times(3)).findContracts(anyCollection());
+    }
+
+    private static Contract contract(String id) {
+        Contract contract = new Contract();
+        contract.id = id;
+        contract.start = LocalDate.of(2025, 1, 1);
+        return contract;
+    }
+}
@@ -0,0 +1,110 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.inputs.ContractInput;
+import klee.solution.bulille.pocs.blink.appserver.in.http.dtos.inputs.SoldPrestationInput;
+import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Contract;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.ContractType;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.CustomerStorage;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.prestation.Prestation;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CustomerServiceTest {
+
+    private static final CustomerId CUSTOMER_ID = new CustomerId(new ObjectId().toHexString());
+    private static final LocalDate START = LocalDate.of(2025, 3, 1);
+    private static final LocalDate END = LocalDate.of(2025, 3, 31);
+
+    private final CustomerStorage customerStorage = mock(CustomerStorage.class);
+    private final PrestationCatalogue prestationCatalogue = mock(PrestationCatalogue.class);
+    private final ContractCache contractCache = mock(ContractCache.class);
+    private final CustomerService service = new CustomerService(this.customerStorage, this.prestationCatalogue, this.contractCache);
+
+    @Test
+    void refusesAContractOverlappingAnExistingOne() {
+        this.refusePush();
+        when(this.customerStorage.find(CUSTOMER_ID)).thenReturn(Optional.of(customer(contract(END, END.plusDays(10)))));
+
+        assertThatThrownBy(() -> this.service.addContract(CUSTOMER_ID, contractInput(START, END)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("New contract dates overlap with an existing contract.");
+        verify(this.contractCache).invalidate(CUSTOMER_ID);
+    }
+
+    @Test
+    void refusesAContractOnAMissingCustomer() {
+        this.refusePush();
+        when(this.customerStorage.find(CUSTOMER_ID)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> this.service.addContract(CUSTOMER_ID, contractInput(START, END)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Customer not found with ID: " + CUSTOMER_ID.id());
+    }
+
+    /**
+     * The contract overlapped when pushed, but no longer does when the customer is read back.
+     */
+    @Test
+    void asksToRetryWhenNoOverlapIsFoundAfterwards() {
+        this.refusePush();
+        when(this.customerStorage.find(CUSTOMER_ID)).thenReturn(Optional.of(customer(contract(END.plusDays(1), null))));
+
+        assertThatThrownBy(() -> this.service.addContract(CUSTOMER_ID, contractInput(START, END)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Contract could not be added to customer " + CUSTOMER_ID.id() + ", please retry.");
+    }
+
+    @Test
+    void boundsOfContractsAreInclusive() {
+        assertThat(CustomerService.overlaps(contractInput(START, START), contract(START.minusDays(5), START))).isTrue();
+        assertThat(CustomerService.overlaps(contractInput(START, START), contract(START, null))).isTrue();
+        assertThat(CustomerService.overlaps(contractInput(START, START), contract(START.plusDays(1), null))).isFalse();
+        assertThat(CustomerService.overlaps(contractInput(START, END), contract(START.minusYears(1), START.minusDays(1)))).isFalse();
+    }
+
+    private void refusePush() {
+        when(this.prestationCatalogue.find(anyString())).thenReturn(Optional.of(new Prestation()));
+        when(this.customerStorage.pushContract(any(CustomerId.class), any(Contract.class))).thenReturn(Optional.empty());
+    }
+
+    private static Customer customer(Contract contract) {
+        Customer customer = new Customer();
+        customer.contracts = List.of(contract);
+        return customer;
+    }
+
+    private static Contract contract(LocalDate start, LocalDate end) {
+        Contract contract = new Contract();
+        contract.type = end == null ? ContractType.PERMANENT : ContractType.FREE_TRIAL;
+        contract.start = start;
+        contract.end = end;
+        return contract;
+    }
+
+    private static ContractInput contractInput(LocalDate start, LocalDate end) {
+        SoldPrestationInput soldPrestation = new SoldPrestationInput();
+        soldPrestation.salesSystemId = "P1";
+        soldPrestation.units = 10;
+        soldPrestation.totalBilledAmountForUnits = 100;
+        ContractInput contractInput = new ContractInput();
+        contractInput.type = ContractType.FREE_TRIAL;
+        contractInput.startDate = start;
+        contractInput.endDate = end;
+        contractInput.soldPrestations = List.of(soldPrestation);
+        return contractInput;
+    }
+}
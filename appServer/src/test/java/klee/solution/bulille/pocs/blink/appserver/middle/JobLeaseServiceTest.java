@@ -0,0 +1,88 @@
+package klee.solution.bulille.pocs.blink.appserver.middle;
+
+import klee.solution.bulille.pocs.blink.appserver.config.JobLeaseProperties;
+import klee.solution.bulille.pocs.blink.appserver.out.memory.InMemoryJobLeaseStorage;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.lease.JobLease;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JobLeaseServiceTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    private final InMemoryJobLeaseStorage storage = new InMemoryJobLeaseStorage();
+    private final JobLeaseService instanceA = new JobLeaseService(this.storage, properties("a"));
+    private final JobLeaseService instanceB = new JobLeaseService(this.storage, properties("b"));
+
+    @Test
+    void skipsAJobRunByAnotherInstance() {
+        AtomicBoolean ranOnB = new AtomicBoolean();
+
+        boolean ranOnA = this.instanceA.runExclusively(JobLeaseService.HOURLY_REPORT, HOUR, Duration.ZERO,
+                lease -> assertThat(this.instanceB.runExclusively(JobLeaseService.HOURLY_REPORT, HOUR, Duration.ZERO,
+                        otherLease -> ranOnB.set(true))).isFalse());
+
+        assertThat(ranOnA).isTrue();
+        assertThat(ranOnB).isFalse();
+    }
+
+    @Test
+    void releasesTheLeaseAfterTheJob() {
+        List<JobLease> leases = new ArrayList<>();
+
+        assertThat(this.instanceA.runExclusively(JobLeaseService.HOURLY_REPORT, HOUR, Duration.ZERO, leases::add)).isTrue();
+        assertThat(this.instanceB.runExclusively(JobLeaseService.HOURLY_REPORT, HOUR, Duration.ZERO, leases::add)).isTrue();
+
+        assertThat(leases).extracting(lease -> lease.owner).containsExactly("a", "b");
+        assertThat(leases.get(1).token).isGreaterThan(leases.get(0).token);
+    }
+
+    @Test
+    void keepsTheLeaseAtLeastTheGivenTimeAfterTheJob() {
+        this.instanceA.runExclusively(JobLeaseService.HOURLY_REPORT, HOUR, HOUR, lease -> {
+        });
+
+        assertThat(this.instanceB.runExclusively(JobLeaseService.HOURLY_REPORT, HOUR, Duration.ZERO, lease -> {
+        })).isFalse();
+    }
+
+    @Test
+    void releasesTheLeaseWhenTheJobFails() {
+        assertThatThrownBy(() -> this.instanceA.runExclusively(JobLeaseService.HOURLY_REPORT, HOUR, Duration.ZERO, lease -> {
+            throw new IllegalStateException("failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(this.instanceB.runExclusively(JobLeaseService.HOURLY_REPORT, HOUR, Duration.ZERO, lease -> {
+        })).isTrue();
+    }
+
+    /**
+     * The lease of A expired during its job and B took the job over : A must not write its results.
+     */
+    @Test
+    void tellsAHolderItsLeaseWasTakenOver() {
+        AtomicBoolean heldAtTheEnd = new AtomicBoolean(true);
+
+        this.instanceA.runExclusively(JobLeaseService.HOURLY_REPORT, Duration.ZERO, Duration.ZERO, lease -> {
+            assertThat(this.instanceB.runExclusively(JobLeaseService.HOURLY_REPORT, HOUR, HOUR, otherLease -> {
+            })).isTrue();
+            heldAtTheEnd.set(this.instanceA.isHeld(lease));
+        });
+
+        assertThat(heldAtTheEnd).isFalse();
+        // the release of A did not end the lease of B
+        assertThat(this.instanceA.runExclusively(JobLeaseService.HOURLY_REPORT, HOUR, Duration.ZERO, lease -> {
+        })).isFalse();
+    }
+
+    private static JobLeaseProperties properties(String owner) {
+        return new JobLeaseProperties(owner, HOUR, Duration.ZERO, HOUR);
+    }
+}
@@ -0,0 +1,74 @@
+package klee.solution.bulille.pocs.blink.appserver.out.file;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import klee.solution.bulille.pocs.blink.appserver.config.PrestationImportProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelPrestationCsvReaderTest {
+
+    private final ParallelPrestationCsvReader reader = new ParallelPrestationCsvReader(
+            new PrestationImportProperties(10, true, DataSize.ofBytes(0), DataSize.ofBytes(100), 4, 2),
+            new SimpleMeterRegistry());
+
+    @TempDir
+    Path folder;
+
+    @AfterEach
+    void tearDown() {
+        this.reader.shutdown();
+    }
+
+    @Test
+    void readsTheSameRowsAsTheSequentialReader() throws IOException {
+        StringBuilder content = new StringBuilder("salesSystemId,name,unitPrice\r\n");
+        for (int i = 0; i < 500; i++) {
+            content.append("P").append(i).append(",\"Prestation, n°").append(i).append("\",").append(i).append(".5\r\n");
+            if (i % 50 == 0) {
+                content.append("BROKEN,line,not-a-price\n");
+            }
+        }
+        Path csvFile = Files.writeString(this.folder.resolve("prestations_big.csv"), content, StandardCharsets.UTF_8);
+
+        List<PrestationBatch> sequential = new ArrayList<>();
+        List<PrestationBatch> parallel = new ArrayList<>();
+        assertThat(new PrestationCsvReader().read(csvFile, 10, sequential::add)).isTrue();
+        assertThat(this.reader.read(csvFile, 10, parallel::add)).isTrue();
+
+        assertThat(rowsOf(parallel)).containsExactlyElementsOf(rowsOf(sequential)).hasSize(500);
+        assertThat(rejectedOf(parallel)).isEqualTo(rejectedOf(sequential)).isEqualTo(10);
+        assertThat(parallel).extracting(PrestationBatch::number)
+                .containsExactlyElementsOf(IntStream.rangeClosed(1, parallel.size()).boxed().toList());
+    }
+
+    @Test
+    void refusesAFileWithoutHeader() throws IOException {
+        Path csvFile = Files.writeString(this.folder.resolve("prestations_empty.csv"), "");
+
+        assertThat(this.reader.read(csvFile, 10, batch -> { })).isFalse();
+    }
+
+    private static List<PrestationRow> rowsOf(List<PrestationBatch> batches) {
+        return batches.stream()
+                .flatMap(batch -> batch.rows().stream())
+                .sorted(Comparator.comparing(PrestationRow::salesSystemId))
+                .toList();
+    }
+
+    private static int rejectedOf(List<PrestationBatch> batches) {
+        return batches.stream().mapToInt(PrestationBatch::rejected).sum();
+    }
+}
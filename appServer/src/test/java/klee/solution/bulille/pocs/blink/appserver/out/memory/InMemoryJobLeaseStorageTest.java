@@ -0,0 +1,72 @@
+package klee.solution.bulille.pocs.blink.appserver.out.memory;
+
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.lease.JobLease;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryJobLeaseStorageTest {
+
+    private static final String JOB = "hourly-report";
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    private final InMemoryJobLeaseStorage storage = new InMemoryJobLeaseStorage();
+
+    @Test
+    void refusesAHeldLease() {
+        JobLease lease = this.storage.acquire(JOB, "a", HOUR).orElseThrow();
+
+        assertThat(this.storage.acquire(JOB, "b", HOUR)).isEmpty();
+        assertThat(this.storage.acquire(JOB, "a", HOUR)).isEmpty();
+        assertThat(this.storage.isHeld(lease)).isTrue();
+        assertThat(this.storage.acquire("other-job", "b", HOUR)).isPresent();
+    }
+
+    /**
+     * A lease acquired for no time is expired as soon as it is acquired.
+     */
+    @Test
+    void takesOverAnExpiredLeaseWithAHigherToken() {
+        JobLease expired = this.storage.acquire(JOB, "a", Duration.ZERO).orElseThrow();
+
+        JobLease takenOver = this.storage.acquire(JOB, "b", HOUR).orElseThrow();
+
+        assertThat(takenOver.token).isGreaterThan(expired.token);
+        assertThat(takenOver.owner).isEqualTo("b");
+        assertThat(this.storage.isHeld(expired)).isFalse();
+        assertThat(this.storage.isHeld(takenOver)).isTrue();
+    }
+
+    @Test
+    void ignoresTheReleaseOfALeaseTakenOver() {
+        JobLease expired = this.storage.acquire(JOB, "a", Duration.ZERO).orElseThrow();
+        JobLease takenOver = this.storage.acquire(JOB, "b", HOUR).orElseThrow();
+
+        this.storage.release(expired, Duration.ZERO);
+
+        assertThat(this.storage.isHeld(takenOver)).isTrue();
+        assertThat(this.storage.acquire(JOB, "a", HOUR)).isEmpty();
+    }
+
+    @Test
+    void keepsAReleasedLeaseAtLeastTheGivenTime() {
+        JobLease lease = this.storage.acquire(JOB, "a", HOUR).orElseThrow();
+
+        this.storage.release(lease, HOUR);
+
+        assertThat(this.storage.acquire(JOB, "b", HOUR)).isEmpty();
+    }
+
+    @Test
+    void endsAReleasedLeaseWithoutAtLeast() {
+        JobLease lease = this.storage.acquire(JOB, "a", HOUR).orElseThrow();
+
+        this.storage.release(lease, Duration.ZERO);
+
+        assertThat(this.storage.isHeld(lease)).isFalse();
+        JobLease next = this.storage.acquire(JOB, "b", HOUR).orElseThrow();
+        assertThat(next.token).isGreaterThan(lease.token);
+    }
+}
@@ -0,0 +1,51 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo;
+
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity.Activity;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer.Customer;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.lease.JobLease;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger.ContractLedger;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DeclaredIndexesTest {
+
+    private final IndexResolver indexResolver = IndexResolver.create(mappingContext());
+
+    private static MongoMappingContext mappingContext() {
+        // as configured by Spring Boot : java.time types are simple values, not entities
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        return mappingContext;
+    }
+
+    @Test
+    void declaresTheIndexesOfTheHotQueries() {
+        assertThat(this.keysOf(Activity.class)).contains(new Document("contractId", 1).append("salesSystemId", 1));
+        // an 'id' property is stored as '_id', in embedded documents too
+        assertThat(this.keysOf(Customer.class)).contains(new Document("contracts._id", 1));
+        assertThat(this.keysOf(ContractLedger.class)).contains(new Document("contractId", 1));
+    }
+
+    @Test
+    void expiresTheJobLeases() {
+        assertThat(this.indexResolver.resolveIndexFor(JobLease.class))
+                .anySatisfy(index -> {
+                    assertThat(index.getIndexKeys()).isEqualTo(new Document("expiresAt", 1));
+                    assertThat(index.getIndexOptions().get("expireAfterSeconds")).isEqualTo(0L);
+                });
+    }
+
+    private List<Document> keysOf(Class<?> type) {
+        return StreamSupport.stream(this.indexResolver.resolveIndexFor(type).spliterator(), false)
+                .map(index -> index.getIndexKeys())
+                .toList();
+    }
+}
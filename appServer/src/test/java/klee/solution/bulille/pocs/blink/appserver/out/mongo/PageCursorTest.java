@@ -0,0 +1,47 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    @Test
+    void decodesTheEncodedValues() {
+        String cursor = PageCursor.encode("2025-03-01", "", "Ødegård ß");
+
+        assertThat(PageCursor.decode(cursor, 3)).containsExactly("2025-03-01", "", "Ødegård ß");
+    }
+
+    @Test
+    void encodesUrlSafeTokens() {
+        // encoded as w7vDvz4+Pj8= in standard Base64
+        assertThat(PageCursor.encode("ûÿ>>>?")).doesNotContain("+", "/", "=");
+    }
+
+    @Test
+    void refusesACursorWithAnotherNumberOfValues() {
+        String cursor = PageCursor.encode("a", "b");
+
+        assertThatThrownBy(() -> PageCursor.decode(cursor, 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor: " + cursor);
+        assertThatThrownBy(() -> PageCursor.decode(cursor, 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void refusesACursorThatIsNotBase64() {
+        assertThatThrownBy(() -> PageCursor.decode("not a cursor!", 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Invalid cursor: not a cursor!");
+        // standard, not url-safe, alphabet
+        String standard = Base64.getEncoder().encodeToString("ûÿ>>>?".getBytes(StandardCharsets.UTF_8));
+        assertThatThrownBy(() -> PageCursor.decode(standard, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
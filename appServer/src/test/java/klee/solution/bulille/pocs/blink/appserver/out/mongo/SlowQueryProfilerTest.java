@@ -0,0 +1,38 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryProfilerTest {
+
+    @Test
+    void keepsOnlyWhatCanBeExplained() {
+        BsonDocument update = BsonDocument.parse("""
+                {"update": "users", "ordered": true, "$db": "customers", "lsid": {"id": 1},
+                 "updates": [{"q": {"_id": 1}, "u": {"$set": {"a": 1}}}, {"q": {"_id": 2}, "u": {"$set": {"a": 2}}}]}""");
+
+        BsonDocument summary = SlowQueryProfiler.summary("update", update);
+
+        assertThat(summary).isEqualTo(BsonDocument.parse("""
+                {"update": "users", "ordered": true, "updates": [{"q": {"_id": 1}, "u": {"$set": {"a": 1}}}]}"""));
+    }
+
+    @Test
+    void readsTheWinningPlanOfAnAggregation() {
+        BsonDocument explain = BsonDocument.parse("""
+                {"stages": [{"$cursor": {
+                    "queryPlanner": {"winningPlan": {"stage": "FETCH", "inputStage": {"stage": "IXSCAN", "keyPattern": {"contractId": 1}}}},
+                    "executionStats": {"nReturned": 3, "executionTimeMillis": 12, "totalKeysExamined": 3, "totalDocsExamined": 3}}},
+                  {"$group": {"_id": "$contractId"}}]}""");
+
+        SlowQuery.Explain plan = SlowQueryProfiler.explainOf(explain);
+
+        assertThat(plan.stages()).isEqualTo("FETCH > IXSCAN");
+        assertThat(plan.docsExamined()).isEqualTo(3);
+        assertThat(plan.keysExamined()).isEqualTo(3);
+        assertThat(plan.docsReturned()).isEqualTo(3);
+        assertThat(plan.executionTimeMillis()).isEqualTo(12);
+    }
+}
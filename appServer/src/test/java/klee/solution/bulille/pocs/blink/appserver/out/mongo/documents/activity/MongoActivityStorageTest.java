@@ -0,0 +1,46 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.activity;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MongoActivityStorageTest {
+
+    private final ActivityRepository activityRepository = mock(ActivityRepository.class);
+    private final MongoActivityStorage storage = new MongoActivityStorage(this.activityRepository, mock(MongoTemplate.class));
+
+    @Test
+    void tellsHowManyActivitiesWereInsertedBeforeTheFailure() {
+        MongoBulkWriteException failure = new MongoBulkWriteException(
+                BulkWriteResult.acknowledged(2, 0, 0, 0, List.of(), List.of()),
+                List.of(new BulkWriteError(11000, "E11000 duplicate key error", new BsonDocument(), 2)),
+                null, new ServerAddress(), Set.of());
+        when(this.activityRepository.insert(anyList())).thenThrow(new DuplicateKeyException(failure.getMessage(), failure));
+
+        assertThatThrownBy(() -> this.storage.insertAll(List.of(new Activity(), new Activity(), new Activity())))
+                .isInstanceOfSatisfying(ActivityInsertException.class, e -> assertThat(e.insertedCount()).isEqualTo(2));
+    }
+
+    @Test
+    void rethrowsFailuresThatDoNotTellWhatWasInserted() {
+        when(this.activityRepository.insert(anyList())).thenThrow(new DataAccessResourceFailureException("timeout"));
+
+        assertThatThrownBy(() -> this.storage.insertAll(List.of(new Activity())))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+    }
+}
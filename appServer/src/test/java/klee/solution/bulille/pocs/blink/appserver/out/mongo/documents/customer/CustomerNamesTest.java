@@ -0,0 +1,55 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer;
+
+import klee.solution.bulille.pocs.blink.appserver.middle.NameSearchMode;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CustomerNamesTest {
+
+    @Test
+    void foldsCaseAndAccentsAndSplitsWords() {
+        assertThat(CustomerNames.tokens("Éloïse", "DUPONT-martin", null, " d'Ávila "))
+                .containsExactly("eloise", "dupont", "martin", "d", "avila");
+    }
+
+    @Test
+    void keepsLettersOutsideAscii() {
+        assertThat(CustomerNames.tokens("Øyvind", "Łukasz Straße")).containsExactly("øyvind", "łukasz", "straße");
+    }
+
+    @Test
+    void keepsCyrillicAndCjkWords() {
+        assertThat(CustomerNames.tokens("Александр Пушкин", "李 小龍")).containsExactly("александр", "пушкин", "李", "小龍");
+    }
+
+    @Test
+    void setsTheKeysVersionWhenIndexing() {
+        Customer customer = new Customer();
+        customer.firstName = "Øyvind";
+        customer.givenName = "李";
+
+        CustomerNames.index(customer);
+
+        assertThat(customer.nameTokens).containsExactly("øyvind", "李");
+        assertThat(customer.nameKeysVersion).isEqualTo(CustomerNames.KEYS_VERSION);
+    }
+
+    @Test
+    void refusesShortWordsInContainsModeOnly() {
+        assertThatThrownBy(() -> CustomerNames.searchWords("dupont jo", NameSearchMode.CONTAINS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("'jo'");
+        assertThat(CustomerNames.searchWords("dupont jo", NameSearchMode.PREFIX)).containsExactly("dupont", "jo");
+        assertThat(CustomerNames.searchWords("pon 李小龍", NameSearchMode.CONTAINS)).containsExactly("pon", "李小龍");
+    }
+
+    @Test
+    void suffixesAllowContainsSearchAsPrefixSearch() {
+        assertThat(CustomerNames.suffixes(List.of("anna", "na")))
+                .containsExactly("anna", "nna", "na", "a");
+    }
+}
@@ -0,0 +1,167 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.customer;
+
+import klee.solution.bulille.pocs.blink.appserver.middle.CursorPage;
+import klee.solution.bulille.pocs.blink.appserver.middle.CustomerView;
+import klee.solution.bulille.pocs.blink.appserver.middle.NameSearchMode;
+import klee.solution.bulille.pocs.blink.appserver.middle.id.CustomerId;
+import klee.solution.bulille.pocs.blink.appserver.out.mongo.PageCursor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MongoCustomerStorageTest {
+
+    private static final ObjectId CUSTOMER_ID = new ObjectId();
+    private static final LocalDate START = LocalDate.of(2025, 3, 1);
+    private static final LocalDate END = LocalDate.of(2025, 3, 31);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final MongoCustomerStorage storage = new MongoCustomerStorage(mock(CustomerRepository.class), this.mongoTemplate);
+
+    @Test
+    void searchesAllCustomersWithoutQuery() {
+        assertThat(MongoCustomerStorage.searchQuery(null, NameSearchMode.CONTAINS).getQueryObject()).isEmpty();
+        assertThat(MongoCustomerStorage.searchQuery("  ", NameSearchMode.CONTAINS).getQueryObject()).isEmpty();
+    }
+
+    @Test
+    void searchesNoCustomerWhenTheQueryHasNoWord() {
+        assertThat(MongoCustomerStorage.searchQuery("-- !", NameSearchMode.PREFIX).getQueryObject())
+                .isEqualTo(new Document("nameTokens", new Document("$in", List.of())));
+    }
+
+    @Test
+    void searchesNonLatinWordsOnTheirKeys() {
+        assertThat(MongoCustomerStorage.searchQuery("Александр", NameSearchMode.PREFIX).getQueryObject().get("nameTokens"))
+                .hasToString("^александр");
+    }
+
+    @Test
+    void givesANextCursorOnlyIfOneMoreCustomerWasFound() {
+        List<Customer> found = List.of(customer(), customer(), customer());
+
+        CursorPage<Customer> page = MongoCustomerStorage.page(found, 2, 7L);
+        assertThat(page.items()).containsExactly(found.get(0), found.get(1));
+        assertThat(page.nextCursor()).isEqualTo(PageCursor.encode(found.get(1).id.toHexString()));
+        assertThat(page.total()).isEqualTo(7L);
+
+        CursorPage<Customer> lastPage = MongoCustomerStorage.page(found, 3, null);
+        assertThat(lastPage.items()).isEqualTo(found);
+        assertThat(lastPage.nextCursor()).isNull();
+    }
+
+    @Test
+    void fetchesOneMoreCustomerAfterTheCursor() {
+        Query pageQuery = MongoCustomerStorage.pageQuery(new Query(), Optional.of(PageCursor.encode(CUSTOMER_ID.toHexString())),
+                10, CustomerView.SUMMARY);
+
+        assertThat(pageQuery.getLimit()).isEqualTo(11);
+        assertThat(pageQuery.getSortObject()).isEqualTo(new Document("_id", 1));
+        assertThat(pageQuery.getQueryObject()).isEqualTo(new Document("_id", new Document("$gt", CUSTOMER_ID)));
+    }
+
+    @Test
+    void refusesACursorThatIsNotAnId() {
+        assertThatThrownBy(() -> MongoCustomerStorage.pageQuery(new Query(), Optional.of(PageCursor.encode("42")), 10, CustomerView.SUMMARY))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Invalid cursor");
+    }
+
+    /**
+     * An existing contract overlaps if it starts before the new one ends and does not end before it starts ; an
+     * existing contract without end only has to start before the new one ends.
+     */
+    @Test
+    void pushesOnlyIfNoContractOverlapsTheDates() {
+        Customer updated = new Customer();
+        when(this.mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Customer.class)))
+                .thenReturn(updated);
+        Contract contract = contract(START, END);
+
+        assertThat(this.storage.pushContract(new CustomerId(CUSTOMER_ID.toHexString()), contract)).containsSame(updated);
+
+        assertThat(this.pushedFilter()).isEqualTo(notHolding(new Document("$and", List.of(
+                new Document("start", new Document("$lte", END)),
+                overlappingEnd(START)))));
+        verify(this.mongoTemplate).findAndModify(any(Query.class), eq(new Update().push("contracts", contract)),
+                any(FindAndModifyOptions.class), eq(Customer.class));
+    }
+
+    /**
+     * Bounds are inclusive : a one-day contract overlaps the contracts ending or starting that day.
+     */
+    @Test
+    void pushesASameDayContractOnlyIfNoContractCoversThatDay() {
+        this.storage.pushContract(new CustomerId(CUSTOMER_ID.toHexString()), contract(START, START));
+
+        assertThat(this.pushedFilter()).isEqualTo(notHolding(new Document("$and", List.of(
+                new Document("start", new Document("$lte", START)),
+                overlappingEnd(START)))));
+    }
+
+    /**
+     * A contract without end overlaps every contract not ended before it starts, whenever that contract started.
+     */
+    @Test
+    void pushesAnOpenEndedContractOnlyIfEveryContractEndedBeforeItStarts() {
+        this.storage.pushContract(new CustomerId(CUSTOMER_ID.toHexString()), contract(START, null));
+
+        assertThat(this.pushedFilter()).isEqualTo(notHolding(overlappingEnd(START)));
+    }
+
+    @Test
+    void pushesNothingOnAMissingCustomer() {
+        when(this.mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Customer.class)))
+                .thenReturn(null);
+
+        assertThat(this.storage.pushContract(new CustomerId(CUSTOMER_ID.toHexString()), contract(START, END))).isEmpty();
+    }
+
+    private Document pushedFilter() {
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(this.mongoTemplate).findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(Customer.class));
+        return query.getValue().getQueryObject();
+    }
+
+    private static Document notHolding(Document overlapping) {
+        return new Document("_id", CUSTOMER_ID)
+                .append("contracts", new Document("$not", new Document("$elemMatch", overlapping)));
+    }
+
+    private static Document overlappingEnd(LocalDate start) {
+        return new Document("$or", List.of(
+                new Document("end", null),
+                new Document("end", new Document("$gte", start))));
+    }
+
+    private static Customer customer() {
+        Customer customer = new Customer();
+        customer.id = new ObjectId();
+        return customer;
+    }
+
+    private static Contract contract(LocalDate start, LocalDate end) {
+        Contract contract = new Contract();
+        contract.type = end == null ? ContractType.PERMANENT : ContractType.FREE_TRIAL;
+        contract.start = start;
+        contract.end = end;
+        return contract;
+    }
+}
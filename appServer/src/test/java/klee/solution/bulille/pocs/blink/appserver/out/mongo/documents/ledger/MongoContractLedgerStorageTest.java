@@ -0,0 +1,89 @@
+package klee.solution.bulille.pocs.blink.appserver.out.mongo.documents.ledger;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MongoContractLedgerStorageTest {
+
+    private static final LedgerReservation RESERVATION = new LedgerReservation("c1", "P1", 1, 10, 5);
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulkOperations = mock(BulkOperations.class);
+    private final MongoContractLedgerStorage storage = new MongoContractLedgerStorage(this.mongoTemplate);
+
+    /**
+     * Two first reservations on the same entry : both upserts try to create it, the second one fails on a duplicate key.
+     */
+    @Test
+    void reservesOnTheEntryCreatedByAConcurrentReservation() {
+        when(this.mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ContractLedger.class)).thenReturn(this.bulkOperations);
+        when(this.bulkOperations.execute())
+                .thenReturn(BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()))
+                .thenThrow(duplicateKey());
+        when(this.mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ContractLedger.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        assertThat(this.storage.reserveAll(List.of(RESERVATION))).containsExactly(true);
+        assertThat(this.storage.reserveAll(List.of(RESERVATION))).containsExactly(true);
+    }
+
+    @Test
+    void refusesWhenTheExistingEntryIsOverQuota() {
+        when(this.mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ContractLedger.class)).thenReturn(this.bulkOperations);
+        when(this.bulkOperations.execute()).thenThrow(duplicateKey());
+        when(this.mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(ContractLedger.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        assertThat(this.storage.reserveAll(List.of(RESERVATION))).containsExactly(false);
+    }
+
+    @Test
+    void releasesTheAppliedReservationsWhenTheBulkWriteFails() {
+        LedgerReservation failing = new LedgerReservation("c1", "P2", 1, 10, 5);
+        when(this.mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ContractLedger.class)).thenReturn(this.bulkOperations);
+        when(this.bulkOperations.execute())
+                .thenThrow(bulkError(2, "BadValue", 1))
+                .thenReturn(BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()));
+
+        assertThatThrownBy(() -> this.storage.reserveAll(List.of(RESERVATION, failing)))
+                .isInstanceOf(BulkOperationException.class);
+
+        verify(this.bulkOperations).updateOne(Query.query(Criteria.where("_id").is(RESERVATION.ledgerId())),
+                new Update().inc("unitsConsumed", -RESERVATION.units()).inc("billedAmount", -RESERVATION.amount()));
+        verify(this.bulkOperations, never()).updateOne(eq(Query.query(Criteria.where("_id").is(failing.ledgerId()))), any(Update.class));
+    }
+
+    private static BulkOperationException duplicateKey() {
+        return bulkError(11000, "E11000 duplicate key error", 0);
+    }
+
+    private static BulkOperationException bulkError(int code, String message, int index) {
+        return new BulkOperationException(message, new MongoBulkWriteException(
+                BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()),
+                List.of(new BulkWriteError(code, message, new BsonDocument(), index)),
+                null, new ServerAddress(), Set.of()));
+    }
+}